@@ -0,0 +1,13 @@
+package com.loxon.javachallenge.memory.benchmark;
+
+/**
+ * Kind of commands the players send in the benchmarked rounds.
+ */
+public enum CommandMix {
+    /** every command type with equal probability */
+    MIXED,
+    /** scans only */
+    SCAN,
+    /** stats only */
+    STATS
+}
@@ -0,0 +1,50 @@
+package com.loxon.javachallenge.memory.benchmark;
+
+import com.loxon.javachallenge.memory.api.Game;
+import com.loxon.javachallenge.memory.api.communication.general.Command;
+import com.loxon.javachallenge.memory.api.communication.general.Response;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of a single round with one command from every player.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class NextRoundBenchmark {
+
+    @Param({"24", "4096", "1048576", "10000000"})
+    public int cells;
+
+    @Param({"2", "16", "256"})
+    public int players;
+
+    @Param({"MIXED", "SCAN", "STATS"})
+    public CommandMix mix;
+
+    private Game game;
+    private Command[][] rounds;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Workload workload = new Workload(cells, players);
+        workload.warmUpBoard();
+        game = workload.getGame();
+        rounds = workload.rounds(mix);
+        next = 0;
+    }
+
+    @Benchmark
+    public List<Response> nextRound() {
+        Command[] round = rounds[next];
+        next = (next + 1) & (Workload.ROUNDS - 1);
+        return game.nextRound(round);
+    }
+}
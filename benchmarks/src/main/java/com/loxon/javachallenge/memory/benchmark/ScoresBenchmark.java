@@ -0,0 +1,40 @@
+package com.loxon.javachallenge.memory.benchmark;
+
+import com.loxon.javachallenge.memory.api.Game;
+import com.loxon.javachallenge.memory.api.PlayerScore;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of calculating the scores of all players on a played board.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ScoresBenchmark {
+
+    @Param({"24", "4096", "1048576", "10000000"})
+    public int cells;
+
+    @Param({"2", "16", "256"})
+    public int players;
+
+    private Game game;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Workload workload = new Workload(cells, players);
+        workload.warmUpBoard();
+        game = workload.getGame();
+    }
+
+    @Benchmark
+    public List<PlayerScore> getScores() {
+        return game.getScores();
+    }
+}
@@ -0,0 +1,39 @@
+package com.loxon.javachallenge.memory.benchmark;
+
+import com.loxon.javachallenge.memory.api.Game;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of rendering the whole board as text.
+ * The largest board size is left out, its text alone would need several hundred MB.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class VisualizeBenchmark {
+
+    @Param({"24", "4096", "1048576"})
+    public int cells;
+
+    @Param({"2", "16"})
+    public int players;
+
+    private Game game;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Workload workload = new Workload(cells, players);
+        workload.warmUpBoard();
+        game = workload.getGame();
+    }
+
+    @Benchmark
+    public String visualize() {
+        return game.visualize();
+    }
+}
@@ -0,0 +1,105 @@
+package com.loxon.javachallenge.memory.benchmark;
+
+import com.loxon.javachallenge.memory.GameImplementationFactory;
+import com.loxon.javachallenge.memory.api.Game;
+import com.loxon.javachallenge.memory.api.MemoryState;
+import com.loxon.javachallenge.memory.api.Player;
+import com.loxon.javachallenge.memory.api.communication.commands.*;
+import com.loxon.javachallenge.memory.api.communication.general.Command;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Reproducible games and command rounds for the benchmarks.
+ */
+final class Workload {
+    /**
+     * Number of pre-generated rounds, replayed in a loop. Must be a power of two.
+     */
+    static final int ROUNDS = 256;
+
+    private final Random random = new Random(42);
+    private final int cells;
+    private final Game game;
+    private final Player[] players;
+
+    Workload(final int cells, final int playerCount) {
+        this.cells = cells;
+
+        game = GameImplementationFactory.get();
+        players = new Player[playerCount];
+        for (int i = 0; i < playerCount; ++i) {
+            players[i] = game.registerPlayer("p" + i);
+        }
+        game.startGame(layout(), Integer.MAX_VALUE);
+    }
+
+    Game getGame() {
+        return game;
+    }
+
+    // kb. minden tizedik blokk rendszer blokk, a tobbi szabad
+    private List<MemoryState> layout() {
+        List<MemoryState> memory = new ArrayList<>(cells);
+        for (int i = 0; i < cells; ++i) {
+            boolean system = (i / 4) % 10 == 9;
+            memory.add(system ? MemoryState.SYSTEM : MemoryState.FREE);
+        }
+        return memory;
+    }
+
+    Command[][] rounds(final CommandMix mix) {
+        Command[][] rounds = new Command[ROUNDS][];
+        for (int r = 0; r < ROUNDS; ++r) {
+            rounds[r] = new Command[players.length];
+            for (int p = 0; p < players.length; ++p) {
+                rounds[r][p] = command(players[p], mix);
+            }
+        }
+        return rounds;
+    }
+
+    /**
+     * Plays the pre-generated rounds once, to get a board with mixed states.
+     */
+    void warmUpBoard() {
+        for (Command[] round : rounds(CommandMix.MIXED)) {
+            game.nextRound(round);
+        }
+    }
+
+    private Command command(final Player p, final CommandMix mix) {
+        int cell = random.nextInt(cells);
+        // masodik cella ugyanabban a blokkban
+        int sameBlock = Math.min(cells - 1, cell - cell % 4 + random.nextInt(4));
+
+        switch (mix) {
+            case SCAN:
+                return new CommandScan(p, cell);
+
+            case STATS:
+                return new CommandStats(p);
+
+            default:
+                switch (random.nextInt(7)) {
+                    case 0:
+                        return new CommandAllocate(p, Arrays.asList(cell, sameBlock));
+                    case 1:
+                        return new CommandFree(p, Arrays.asList(cell, sameBlock));
+                    case 2:
+                        return new CommandRecover(p, Arrays.asList(cell, sameBlock));
+                    case 3:
+                        return new CommandFortify(p, Arrays.asList(cell, sameBlock));
+                    case 4:
+                        return new CommandSwap(p, Arrays.asList(cell, random.nextInt(cells)));
+                    case 5:
+                        return new CommandScan(p, cell);
+                    default:
+                        return new CommandStats(p);
+                }
+        }
+    }
+}
@@ -3,6 +3,7 @@ package com.loxon.javachallenge.memory.api;
 import com.loxon.javachallenge.memory.api.communication.general.Command;
 import com.loxon.javachallenge.memory.api.communication.general.Response;
 
+import java.io.IOException;
 import java.util.List;
 
 /**
@@ -42,4 +43,15 @@ public interface Game {
      * @return string to be written on the console during testing.
      */
     String visualize();
+
+    /**
+     * Writes the string visualization of the game-state, e.g. to a file or to
+     * the console. Implementations may write it in parts, without creating
+     * the whole string.
+     * @param out destination of the visualization.
+     * @throws IOException if writing fails.
+     */
+    default void visualize(Appendable out) throws IOException {
+        out.append(visualize());
+    }
 }
@@ -35,6 +35,6 @@ public class Player {
 
     @Override
     public int hashCode() {
-        return Objects.hash(id);
+        return id.hashCode();
     }
 }
@@ -2,6 +2,7 @@ package com.loxon.javachallenge.memory.api.communication.commands;
 
 import com.loxon.javachallenge.memory.api.Player;
 import com.loxon.javachallenge.memory.api.communication.general.CommandGeneral;
+import com.loxon.javachallenge.memory.api.communication.general.CommandType;
 
 import java.util.List;
 
@@ -10,6 +11,21 @@ import java.util.List;
  */
 public class CommandRecover extends CommandGeneral {
     public CommandRecover(final Player player, final List<Integer> cells) {
-        super(player, cells);
+        super(player, CommandType.RECOVER, cells);
+    }
+
+    public CommandRecover(final Player player, final int cell) {
+        super(player, CommandType.RECOVER, new int[] { cell }, 1);
+    }
+
+    public CommandRecover(final Player player, final int cell0, final int cell1) {
+        super(player, CommandType.RECOVER, new int[] { cell0, cell1 }, 2);
+    }
+
+    /**
+     * @param cells cell indexes, the first {@code count} are used.
+     */
+    public CommandRecover(final Player player, final int[] cells, final int count) {
+        super(player, CommandType.RECOVER, cells, count);
     }
 }
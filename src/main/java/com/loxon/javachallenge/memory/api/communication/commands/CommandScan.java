@@ -2,6 +2,7 @@ package com.loxon.javachallenge.memory.api.communication.commands;
 
 import com.loxon.javachallenge.memory.api.Player;
 import com.loxon.javachallenge.memory.api.communication.general.Command;
+import com.loxon.javachallenge.memory.api.communication.general.CommandType;
 
 /**
  * Scan a block in the memory.
@@ -10,7 +11,7 @@ public class CommandScan extends Command {
     private Integer cell;
 
     public CommandScan(final Player player, final Integer cell) {
-        super(player);
+        super(player, CommandType.SCAN);
         this.cell = cell;
     }
 
@@ -0,0 +1,29 @@
+package com.loxon.javachallenge.memory.api.communication.commands;
+
+import com.loxon.javachallenge.memory.api.Player;
+import com.loxon.javachallenge.memory.api.communication.general.Command;
+import com.loxon.javachallenge.memory.api.communication.general.CommandType;
+
+/**
+ * Scan consecutive blocks in the memory, starting with the block of the given cell.
+ * Blocks beyond the end of the memory are not returned.
+ */
+public class CommandScanBlocks extends Command {
+    private Integer cell;
+    private Integer blockCount;
+
+    public CommandScanBlocks(final Player player, final Integer cell, final Integer blockCount) {
+        super(player, CommandType.SCAN_BLOCKS);
+        this.cell = cell;
+        this.blockCount = blockCount;
+    }
+
+    public Integer getCell() {
+        return cell;
+    }
+
+    public Integer getBlockCount() {
+        return blockCount;
+    }
+
+}
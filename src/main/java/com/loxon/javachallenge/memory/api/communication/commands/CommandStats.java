@@ -2,6 +2,7 @@ package com.loxon.javachallenge.memory.api.communication.commands;
 
 import com.loxon.javachallenge.memory.api.Player;
 import com.loxon.javachallenge.memory.api.communication.general.Command;
+import com.loxon.javachallenge.memory.api.communication.general.CommandType;
 
 /**
  * Get memory statistics.
@@ -9,7 +10,7 @@ import com.loxon.javachallenge.memory.api.communication.general.Command;
 public class CommandStats extends Command {
 
     public CommandStats(final Player player) {
-        super(player);
+        super(player, CommandType.STATS);
     }
 
 }
@@ -4,15 +4,20 @@ import com.loxon.javachallenge.memory.api.MemoryState;
 import com.loxon.javachallenge.memory.api.Player;
 import com.loxon.javachallenge.memory.api.communication.general.Response;
 
+import java.util.AbstractList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
+import java.util.RandomAccess;
 
 /**
- * Response for @{@link CommandScan} command.
+ * Response for @{@link CommandScan} and @{@link CommandScanBlocks} commands.
  */
 public class ResponseScan extends Response {
     private int firstCell;
     private List<MemoryState> states;
+    private MemoryState[] stateValues;
+    private int stateCount;
 
     public ResponseScan(final Player player, final int firstCell, final List<MemoryState> states) {
         super(player);
@@ -20,6 +25,67 @@ public class ResponseScan extends Response {
         this.states = states;
     }
 
+    /**
+     * @param states scanned states, the first {@code count} are copied.
+     */
+    public ResponseScan(final Player player, final int firstCell, final MemoryState[] states, final int count) {
+        super(player);
+        setStates(firstCell, states, count);
+    }
+
+    /**
+     * Replaces the result of the scan, so the same instance can be reused in
+     * the next round. If the response was created from an array, the list
+     * returned by {@link #getStates()} before this call shows the new states
+     * too. The list given to the list constructor is not changed, it is
+     * replaced by a new view.
+     * @param states scanned states, the first {@code count} are copied.
+     */
+    public void setStates(final int firstCell, final MemoryState[] states, final int count) {
+        if (stateValues == null || stateValues.length < count) {
+            stateValues = Arrays.copyOf(states, count);
+            this.states = null;
+        } else {
+            System.arraycopy(states, 0, stateValues, 0, count);
+        }
+        this.firstCell = firstCell;
+        stateCount = count;
+    }
+
+    /**
+     * First cell of the first scanned block.
+     * @return cell index, -1 for invalid scans
+     */
+    public int getFirstCell() {
+        return firstCell;
+    }
+
+    /**
+     * States of the scanned cells, four for each block. For responses created
+     * from an array this is an unmodifiable view, created on the first call.
+     * @return list of states
+     */
+    public List<MemoryState> getStates() {
+        if (states == null && stateValues != null) {
+            states = new StateView();
+        }
+        return states;
+    }
+
+    public int getStateCount() {
+        return stateValues != null ? stateCount : states.size();
+    }
+
+    public MemoryState getState(final int i) {
+        if (stateValues == null) {
+            return states.get(i);
+        }
+        if (i >= stateCount) {
+            throw new IndexOutOfBoundsException("State: " + i + ", count: " + stateCount);
+        }
+        return stateValues[i];
+    }
+
     @Override
     public boolean equals(final Object o) {
         if (this == o) {
@@ -30,19 +96,31 @@ public class ResponseScan extends Response {
         }
         final ResponseScan that = (ResponseScan) o;
         return firstCell == that.firstCell &&
-                Objects.equals(states, that.states);
+                Objects.equals(getStates(), that.getStates());
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(firstCell, states);
+        return Objects.hash(firstCell, getStates());
     }
 
     @Override
     public String toString() {
         return "ResponseScan{" +
                 "firstCell=" + firstCell +
-                ", states=" + states +
+                ", states=" + getStates() +
                 '}';
     }
+
+    private final class StateView extends AbstractList<MemoryState> implements RandomAccess {
+        @Override
+        public MemoryState get(final int index) {
+            return getState(index);
+        }
+
+        @Override
+        public int size() {
+            return stateCount;
+        }
+    }
 }
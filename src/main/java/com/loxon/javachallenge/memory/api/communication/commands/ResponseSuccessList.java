@@ -3,20 +3,77 @@ package com.loxon.javachallenge.memory.api.communication.commands;
 import com.loxon.javachallenge.memory.api.Player;
 import com.loxon.javachallenge.memory.api.communication.general.Response;
 
+import java.util.AbstractList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
+import java.util.RandomAccess;
 
 /**
  * General response for cases when response is a list of cell indexes.
  */
 public class ResponseSuccessList extends Response {
     private List<Integer> successCells;
+    private int[] cellValues;
+    private int cellCount;
 
     public ResponseSuccessList(final Player player, final List<Integer> successCells) {
         super(player);
         this.successCells = successCells;
     }
 
+    /**
+     * @param successCells cell indexes, the first {@code count} are copied.
+     */
+    public ResponseSuccessList(final Player player, final int[] successCells, final int count) {
+        super(player);
+        setSuccessCells(successCells, count);
+    }
+
+    /**
+     * Replaces the cells of the response, so the same instance can be reused
+     * in the next round. If the response was created from primitive cells,
+     * the list returned by {@link #getSuccessCells()} before this call shows
+     * the new cells too. The list given to the list constructor is not
+     * changed, it is replaced by a new view.
+     * @param successCells cell indexes, the first {@code count} are copied.
+     */
+    public void setSuccessCells(final int[] successCells, final int count) {
+        if (cellValues == null || cellValues.length < count) {
+            cellValues = Arrays.copyOf(successCells, count);
+            this.successCells = null;
+        } else {
+            System.arraycopy(successCells, 0, cellValues, 0, count);
+        }
+        cellCount = count;
+    }
+
+    /**
+     * Cells on which the command succeeded. For responses created from
+     * primitive cells this is an unmodifiable view, created on the first call.
+     * @return list of cell indexes
+     */
+    public List<Integer> getSuccessCells() {
+        if (successCells == null && cellValues != null) {
+            successCells = new CellView();
+        }
+        return successCells;
+    }
+
+    public int getSuccessCount() {
+        return cellValues != null ? cellCount : successCells.size();
+    }
+
+    public int getSuccessCell(final int i) {
+        if (cellValues == null) {
+            return successCells.get(i);
+        }
+        if (i >= cellCount) {
+            throw new IndexOutOfBoundsException("Cell: " + i + ", count: " + cellCount);
+        }
+        return cellValues[i];
+    }
+
     @Override
     public boolean equals(final Object o) {
         if (this == o) {
@@ -26,18 +83,30 @@ public class ResponseSuccessList extends Response {
             return false;
         }
         final ResponseSuccessList that = (ResponseSuccessList) o;
-        return Objects.equals(successCells, that.successCells);
+        return Objects.equals(getSuccessCells(), that.getSuccessCells());
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(successCells);
+        return Objects.hash(getSuccessCells());
     }
 
     @Override
     public String toString() {
         return "ResponseSuccessList{" +
-                "successCells=" + successCells +
+                "successCells=" + getSuccessCells() +
                 '}';
     }
+
+    private final class CellView extends AbstractList<Integer> implements RandomAccess {
+        @Override
+        public Integer get(final int index) {
+            return getSuccessCell(index);
+        }
+
+        @Override
+        public int size() {
+            return cellCount;
+        }
+    }
 }
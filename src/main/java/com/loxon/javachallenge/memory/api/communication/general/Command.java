@@ -7,12 +7,26 @@ import com.loxon.javachallenge.memory.api.Player;
  */
 public abstract class Command {
     private Player player;
+    private final CommandType type;
 
     public Command( final Player player ) {
+        this(player, CommandType.UNKNOWN);
+    }
+
+    protected Command( final Player player, final CommandType type ) {
         this.player = player;
+        this.type = type;
     }
 
     public Player getPlayer() {
         return player;
     }
+
+    /**
+     * Kind of the command.
+     * @return type of the command, {@link CommandType#UNKNOWN} for commands not handled by the game
+     */
+    public final CommandType getType() {
+        return type;
+    }
 }
@@ -2,21 +2,94 @@ package com.loxon.javachallenge.memory.api.communication.general;
 
 import com.loxon.javachallenge.memory.api.Player;
 
+import java.util.AbstractList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.RandomAccess;
 
 /**
  * Abstract command affecting number of cells.
+ *
+ * The cells are either given as a list (which may contain nulls) or as
+ * primitive ints. Both can be read through {@link #getCells()} and through
+ * the primitive accessors, the latter do not box the cell indexes.
  */
 public abstract class CommandGeneral extends Command {
     private List<Integer> cells;
+    private final int[] cellValues;
 
     public CommandGeneral(final Player player, final List<Integer> cells) {
-        super(player);
+        this(player, CommandType.UNKNOWN, cells);
+    }
+
+    protected CommandGeneral(final Player player, final CommandType type, final List<Integer> cells) {
+        super(player, type);
         this.cells = cells;
+        this.cellValues = null;
+    }
+
+    /**
+     * @param cells cell indexes, the first {@code count} are copied.
+     */
+    protected CommandGeneral(final Player player, final CommandType type, final int[] cells, final int count) {
+        super(player, type);
+        this.cellValues = Arrays.copyOf(cells, count);
     }
 
+    /**
+     * Cells of the command. For commands created from primitive cells this is
+     * an unmodifiable view, created on the first call.
+     * @return list of cells, may contain nulls
+     */
     public List<Integer> getCells() {
+        if (cells == null && cellValues != null) {
+            cells = new IntListView(cellValues);
+        }
         return cells;
     }
 
+    /**
+     * Number of cells, nulls included.
+     * @return number of cells, -1 if the cell list is null
+     */
+    public int getCellCount() {
+        if (cellValues != null) {
+            return cellValues.length;
+        }
+        return cells == null ? -1 : cells.size();
+    }
+
+    /**
+     * @return false if the cell at the given position is null
+     */
+    public boolean hasCell(final int i) {
+        return cellValues != null ? i >= 0 && i < cellValues.length : cells.get(i) != null;
+    }
+
+    /**
+     * Cell at the given position, should be checked by {@link #hasCell(int)} first.
+     * @return cell index
+     */
+    public int getCell(final int i) {
+        return cellValues != null ? cellValues[i] : cells.get(i);
+    }
+
+    // kompatibilitasi nezet, csak akkor jon letre, ha valaki listat ker
+    private static final class IntListView extends AbstractList<Integer> implements RandomAccess {
+        private final int[] values;
+
+        IntListView(final int[] values) {
+            this.values = values;
+        }
+
+        @Override
+        public Integer get(final int index) {
+            return values[index];
+        }
+
+        @Override
+        public int size() {
+            return values.length;
+        }
+    }
 }
@@ -0,0 +1,43 @@
+package com.loxon.javachallenge.memory.api.communication.general;
+
+/**
+ * Kind of a command, used for dispatching without type checks.
+ */
+public enum CommandType {
+    /**
+     * @see com.loxon.javachallenge.memory.api.communication.commands.CommandAllocate
+     */
+    ALLOCATE,
+    /**
+     * @see com.loxon.javachallenge.memory.api.communication.commands.CommandFortify
+     */
+    FORTIFY,
+    /**
+     * @see com.loxon.javachallenge.memory.api.communication.commands.CommandFree
+     */
+    FREE,
+    /**
+     * @see com.loxon.javachallenge.memory.api.communication.commands.CommandRecover
+     */
+    RECOVER,
+    /**
+     * @see com.loxon.javachallenge.memory.api.communication.commands.CommandScan
+     */
+    SCAN,
+    /**
+     * @see com.loxon.javachallenge.memory.api.communication.commands.CommandScanBlocks
+     */
+    SCAN_BLOCKS,
+    /**
+     * @see com.loxon.javachallenge.memory.api.communication.commands.CommandStats
+     */
+    STATS,
+    /**
+     * @see com.loxon.javachallenge.memory.api.communication.commands.CommandSwap
+     */
+    SWAP,
+    /**
+     * Command not handled by the game.
+     */
+    UNKNOWN
+}
@@ -0,0 +1,528 @@
+package com.loxon.javachallenge.memory;
+
+import com.loxon.javachallenge.memory.api.MemoryState;
+
+import java.nio.ByteBuffer;
+import java.util.*;
+
+/**
+ * Packed memory board: cell state, owner and round flags live in parallel
+ * primitive arrays instead of one object per cell.
+ *
+ * Owners are stored as small indexes, {@link #NO_OWNER} means the cell has
+ * no owner, every other value is assigned by the game.
+ *
+ * Several boards can share the same arrays (see {@link BoardStorage}), each
+ * using its own block aligned range. The public methods take cell indexes
+ * relative to the board, the private ones work on indexes of the arrays.
+ * A forked board shares the pages of the arrays with its source until they
+ * are written.
+ */
+public class Board {
+    public static final short NO_OWNER = 0;
+
+    private static final MemoryState[] STATES = MemoryState.values();
+
+    private static final byte SYSTEM = (byte) MemoryState.SYSTEM.ordinal();
+    private static final byte ALLOCATED = (byte) MemoryState.ALLOCATED.ordinal();
+    private static final byte FORTIFIED = (byte) MemoryState.FORTIFIED.ordinal();
+    private static final byte CORRUPT = (byte) MemoryState.CORRUPT.ordinal();
+    private static final byte FREE = (byte) MemoryState.FREE.ordinal();
+
+    private final int base;
+    private final int size;
+    private final BoardStorage storage;
+
+    // a cella koronket max 1x irhato, egyebkent korruptalodik
+    private final BitSet written;
+    private final BitSet failedSwap;
+    // a flagek indexe a tarolobeli index - flagBase, a valtozott blokkoke (index - changeBase) / 4;
+    // a szeletek a sajat tartomanyuk elejetol indexelnek, igy a bitsetjeik kicsik maradnak
+    private final int flagBase;
+    private final int changeBase;
+
+    // a legutobbi lekerdezes ota valtozott blokkok, a tabla elejetol szamozva
+    private final BitSet changedBlocks = new BitSet();
+
+    // szamlalok, minden allapotvaltozasnal frissulnek
+    private final int[] stateCounts = new int[STATES.length];
+    private int[] ownedCounts = new int[1];
+    // tulajdonosonkent es allapotonkent: owner * STATES.length + state
+    private int[] ownedStateCounts = new int[STATES.length];
+    // olyan blokkok, amiknek mind a 4 cellaja a tulajdonose
+    private int[] ownedBlocks = new int[1];
+
+    // eleg csak a cella id-kat es a veluk cserelni probalt cellak
+    // id-jat tarolni
+    private final SwapHistory swapHistory = new SwapHistory();
+
+    private final boolean ownsFlags;
+
+    // csak szeletekben: a valtozott blokkok tartalma az elso valtozas elott
+    private final BlockLog blockLog;
+
+    public Board(List<MemoryState> initialMemory) {
+        this(new BoardStorage(initialMemory.size()), 0, initialMemory.size(), true);
+        load(initialMemory);
+    }
+
+    private Board(BoardStorage storage, int base, int size, boolean ownsFlags) {
+        this(storage, base, size, storage.written, storage.failedSwap, 0, base, ownsFlags, false);
+    }
+
+    private Board(BoardStorage storage, int base, int size, BitSet written, BitSet failedSwap,
+                  int flagBase, int changeBase, boolean ownsFlags, boolean shard) {
+        if (base % 4 != 0) {
+            throw new IllegalArgumentException("Board must start at a block boundary.");
+        }
+
+        this.base = base;
+        this.size = size;
+        this.storage = storage;
+        this.written = written;
+        this.failedSwap = failedSwap;
+        this.flagBase = flagBase;
+        this.changeBase = changeBase;
+        this.ownsFlags = ownsFlags;
+        this.blockLog = shard ? new BlockLog() : null;
+    }
+
+    private void load(List<MemoryState> initialMemory) {
+        for (int i = 0; i < size; ++i) {
+            storage.set(base + i, (byte) initialMemory.get(i).ordinal(), NO_OWNER);
+        }
+        countCells();
+    }
+
+    // szamlalok ujraszamolasa a tombokbol
+    private void countCells() {
+        for (int i = base; i < base + size; ++i) {
+            byte state = storage.getState(i);
+            short owner = storage.getOwner(i);
+            ensureOwner(owner);
+            ++stateCounts[state];
+            ++ownedCounts[owner];
+            ++ownedStateCounts[owner * STATES.length + state];
+        }
+
+        for (int first = base; first + 4 <= base + size; first += 4) {
+            short owner = storage.getOwner(first);
+            if (isBlockOwned(first, owner)) {
+                ++ownedBlocks[owner];
+            }
+        }
+    }
+
+    /**
+     * Writes the state and owner of every cell to the buffer in bulk:
+     * {@code size} state bytes followed by {@code size} owner shorts.
+     */
+    void writeCells(ByteBuffer buffer) {
+        storage.write(buffer, base, size);
+    }
+
+    /**
+     * Creates a standalone board from the output of {@link #writeCells(ByteBuffer)}.
+     */
+    static Board readCells(ByteBuffer buffer, int size) {
+        Board board = new Board(new BoardStorage(size), 0, size, true);
+        board.storage.read(buffer, 0, size);
+
+        for (int i = 0; i < size; ++i) {
+            byte state = board.storage.getState(i);
+            if (state < 0 || state >= STATES.length || board.storage.getOwner(i) < 0) {
+                throw new IllegalArgumentException("Invalid cell data at " + i + ".");
+            }
+        }
+
+        board.countCells();
+        return board;
+    }
+
+    /**
+     * Creates an independent copy of the board. The cells are shared page by
+     * page with this board and copied only when one of the boards writes them,
+     * the round flags start cleared.
+     */
+    Board fork() {
+        Board fork = new Board(storage.fork(base, base + size), base, size, true);
+        System.arraycopy(stateCounts, 0, fork.stateCounts, 0, stateCounts.length);
+        fork.ownedCounts = ownedCounts.clone();
+        fork.ownedStateCounts = ownedStateCounts.clone();
+        fork.ownedBlocks = ownedBlocks.clone();
+        return fork;
+    }
+
+    /**
+     * Creates a shard of this board for executing commands on it in parallel
+     * with other shards, see {@link #mergeShard(Board)}. The shard takes the
+     * same cell indexes as this board, but may only change cells from
+     * {@code from} on that no other shard changes. Its counters are not
+     * maintained, the merge updates the counters of this board instead.
+     * @param ownFlags whether the shard has its own round flags, starting
+     *                 cleared, or reads the flags of this board. Shards
+     *                 reading the flags of this board must not set them.
+     */
+    Board shard(int from, boolean ownFlags) {
+        return ownFlags ?
+                new Board(storage, base, size, new BitSet(), new BitSet(), base + from, base + from, true, true) :
+                new Board(storage, base, size, written, failedSwap, flagBase, base + from, false, true);
+    }
+
+    /**
+     * Takes over the changes made on a shard: updates the counters for the
+     * blocks changed on the shard and copies the round flags and the changed
+     * blocks. The shard is cleared and can be used again in the next round.
+     */
+    void mergeShard(Board shard) {
+        BlockLog log = shard.blockLog;
+        for (int k = 0; k < log.count; ++k) {
+            int first = log.blocks[k];
+            int cells = Math.min(4, base + size - first);
+
+            // a blokk regi tartalma ki, az uj be
+            for (int n = 0; n < cells; ++n) {
+                count(log.states[4 * k + n], log.owners[4 * k + n], -1);
+                count(storage.getState(first + n), storage.getOwner(first + n), 1);
+            }
+
+            if (cells == 4) {
+                short oldOwner = log.owners[4 * k];
+                if (oldOwner != NO_OWNER && log.owners[4 * k + 1] == oldOwner &&
+                    log.owners[4 * k + 2] == oldOwner && log.owners[4 * k + 3] == oldOwner) {
+                    --ownedBlocks[oldOwner];
+                }
+
+                short owner = storage.getOwner(first);
+                if (isBlockOwned(first, owner)) {
+                    ++ownedBlocks[owner];
+                }
+            }
+        }
+        log.count = 0;
+
+        if (shard.written != written) {
+            for (int i = shard.written.nextSetBit(0); i >= 0; i = shard.written.nextSetBit(i + 1)) {
+                setWritten(i + shard.flagBase);
+            }
+            for (int i = shard.failedSwap.nextSetBit(0); i >= 0; i = shard.failedSwap.nextSetBit(i + 1)) {
+                setFailedSwap(i + shard.flagBase, true);
+            }
+            shard.written.clear();
+            shard.failedSwap.clear();
+        }
+
+        int blockOffset = (shard.changeBase - changeBase) >>> 2;
+        for (int b = shard.changedBlocks.nextSetBit(0); b >= 0; b = shard.changedBlocks.nextSetBit(b + 1)) {
+            changedBlocks.set(b + blockOffset);
+        }
+        shard.changedBlocks.clear();
+        shard.swapHistory.clear();
+    }
+
+    private void count(byte state, short owner, int delta) {
+        ensureOwner(owner);
+        stateCounts[state] += delta;
+        ownedCounts[owner] += delta;
+        ownedStateCounts[owner * STATES.length + state] += delta;
+    }
+
+    public int size() { return size; }
+
+    int getBase() { return base; }
+
+    public static int getBlock(int cell) { return cell / 4; }
+
+    public short getOwner(int cell) { return storage.getOwner(base + cell); }
+
+    /**
+     * Number of cells in the given state, owner independent.
+     */
+    public int getStateCount(MemoryState state) {
+        return stateCounts[state.ordinal()];
+    }
+
+    /**
+     * Number of cells owned by the given owner, in any state.
+     */
+    public int getOwnedCount(short owner) {
+        return owner < ownedCounts.length ? ownedCounts[owner] : 0;
+    }
+
+    /**
+     * Number of cells owned by the given owner in the given (not owner relative) state.
+     */
+    public int getOwnedCount(short owner, MemoryState state) {
+        return owner < ownedCounts.length ?
+                ownedStateCounts[owner * STATES.length + state.ordinal()] : 0;
+    }
+
+    /**
+     * Number of blocks with all four cells owned by the given owner, in any state.
+     */
+    public int getOwnedBlocks(short owner) {
+        return owner != NO_OWNER && owner < ownedBlocks.length ? ownedBlocks[owner] : 0;
+    }
+
+    public MemoryState getState(int cell) {
+        return STATES[storage.getState(base + cell)];
+    }
+
+    // jatekostol fugg a fortified es allocated statusz
+    public MemoryState getState(int cell, short owner) {
+        byte state = storage.getState(base + cell);
+
+        if (owner != NO_OWNER && storage.getOwner(base + cell) == owner) {
+            if (state == FORTIFIED)
+                return MemoryState.OWNED_FORTIFIED;
+
+            if (state == ALLOCATED)
+                return MemoryState.OWNED_ALLOCATED;
+        }
+
+        return STATES[state];
+    }
+
+    /**
+     * Next block changed since the last {@link #clearChanges()}, with the
+     * same semantics as {@link BitSet#nextSetBit(int)}.
+     */
+    int nextChangedBlock(int fromBlock) {
+        return changedBlocks.nextSetBit(fromBlock);
+    }
+
+    void clearChanges() {
+        changedBlocks.clear();
+    }
+
+    public void resetWrites() {
+        if (ownsFlags) {
+            written.clear();
+            failedSwap.clear();
+        }
+        swapHistory.clear();
+    }
+
+    private void ensureOwner(int owner) {
+        if (owner >= ownedCounts.length) {
+            int length = Math.max(owner + 1, ownedCounts.length * 2);
+            ownedCounts = Arrays.copyOf(ownedCounts, length);
+            ownedStateCounts = Arrays.copyOf(ownedStateCounts, length * STATES.length);
+            ownedBlocks = Arrays.copyOf(ownedBlocks, length);
+        }
+    }
+
+    private boolean isBlockOwned(int i, short owner) {
+        int first = i & ~3;
+        if (owner == NO_OWNER || first + 4 > base + size) {
+            return false;
+        }
+
+        return storage.getOwner(first) == owner && storage.getOwner(first + 1) == owner &&
+               storage.getOwner(first + 2) == owner && storage.getOwner(first + 3) == owner;
+    }
+
+    private void set(int i, byte state, short owner) {
+        int block = (i - changeBase) >>> 2;
+        if (blockLog != null) {
+            // szeletben a szamlalok a mergeShard-ban frissulnek
+            if (!changedBlocks.get(block)) {
+                blockLog.add(storage, i & ~3, Math.min(4, base + size - (i & ~3)));
+                changedBlocks.set(block);
+            }
+            storage.set(i, state, owner);
+            return;
+        }
+
+        byte oldState = storage.getState(i);
+        short oldOwner = storage.getOwner(i);
+        changedBlocks.set(block);
+
+        if (oldOwner != owner) {
+            ensureOwner(owner);
+
+            if (isBlockOwned(i, oldOwner)) {
+                --ownedBlocks[oldOwner];
+            }
+
+            --ownedCounts[oldOwner];
+            ++ownedCounts[owner];
+            storage.set(i, state, owner);
+
+            if (isBlockOwned(i, owner)) {
+                ++ownedBlocks[owner];
+            }
+        } else {
+            storage.set(i, state, owner);
+        }
+
+        --stateCounts[oldState];
+        ++stateCounts[state];
+        --ownedStateCounts[oldOwner * STATES.length + oldState];
+        ++ownedStateCounts[owner * STATES.length + state];
+    }
+
+    private void setState(int i, byte state) {
+        set(i, state, storage.getOwner(i));
+    }
+
+    private boolean isWritten(int i) {
+        return written.get(i - flagBase);
+    }
+
+    private void setWritten(int i) {
+        written.set(i - flagBase);
+    }
+
+    private boolean isFailedSwap(int i) {
+        return failedSwap.get(i - flagBase);
+    }
+
+    private void setFailedSwap(int i, boolean failed) {
+        failedSwap.set(i - flagBase, failed);
+    }
+
+    private boolean canWrite(int i, boolean updateStatus) {
+        byte state = storage.getState(i);
+        boolean wasWritten = isWritten(i);
+        boolean cantWrite =
+                state == SYSTEM ||
+                state == FORTIFIED ||
+                wasWritten;
+
+        if (cantWrite && wasWritten) {
+            setState(i, CORRUPT);
+        }
+
+        if (updateStatus) {
+            setWritten(i);
+        }
+
+        return !cantWrite;
+    }
+
+    private boolean canWrite(int i) {
+        return canWrite(i, false);
+    }
+
+    public void allocate(int cell, short owner) {
+        int i = base + cell;
+        if (canWrite(i) &&
+            storage.getState(i) == FREE) {
+
+            set(i, ALLOCATED, owner);
+            setWritten(i);
+        }
+    }
+
+    public void free(int cell) {
+        int i = base + cell;
+        if (canWrite(i) &&
+            (storage.getState(i) == ALLOCATED ||
+             storage.getState(i) == CORRUPT)) {
+
+            set(i, FREE, NO_OWNER);
+            setWritten(i);
+        }
+    }
+
+    public void recover(int cell, short owner) {
+        int i = base + cell;
+        if (canWrite(i)) {
+            byte state = storage.getState(i);
+            if (state == CORRUPT) {
+                set(i, ALLOCATED, owner);
+            } else if (state == ALLOCATED || state == FREE) {
+                setState(i, CORRUPT);
+            }
+
+            setWritten(i);
+        }
+    }
+
+    public boolean fortify(int cell) {
+        int i = base + cell;
+        boolean canFortify =
+                canWrite(i) &&
+                storage.getState(i) == ALLOCATED;
+
+        if (canFortify) {
+            setState(i, FORTIFIED);
+        }
+
+        return canFortify;
+    }
+
+    public void swap(int cell1, int cell2) {
+        int id1 = base + cell1;
+        int id2 = base + cell2;
+
+        // egyik cella id-je a masik elozmenyei koze...
+        swapHistory.add(id1, id2);
+
+        // ...es a masik cella id-je az egyik elozmenyei koze,
+        // igy id1 -> id2 es id2 -> id1
+        swapHistory.add(id2, id1);
+
+        if (canWrite(id1, true) && canWrite(id2, true)) {
+            // a cella tartalma a flagekkel egyutt vandorol
+            byte state1 = storage.getState(id1);
+            short owner1 = storage.getOwner(id1);
+            set(id1, storage.getState(id2), storage.getOwner(id2));
+            set(id2, state1, owner1);
+
+            boolean failed1 = isFailedSwap(id1);
+            setFailedSwap(id1, isFailedSwap(id2));
+            setFailedSwap(id2, failed1);
+        } else {
+            corruptSwap(id1);
+            corruptSwap(id2);
+        }
+    }
+
+    private void corruptSwap(int start) {
+        // egy kiindulasi cellatol kezdve...
+        setState(start, CORRUPT);
+        setFailedSwap(start, true);
+
+        // ...minden olyan cellat elrontunk, amihez koze volt
+        for (int e = swapHistory.remove(start);
+             e != SwapHistory.NONE;
+             e = swapHistory.next(e)) {
+
+            int id = swapHistory.target(e);
+
+            // csak azokat, amik meg nem lettek elrontva
+            if (!isFailedSwap(id)) {
+                setState(id, CORRUPT);
+                setFailedSwap(id, true);
+            }
+        }
+    }
+
+    public boolean successfulySwapped(int cell) {
+        return !isFailedSwap(base + cell);
+    }
+
+    private static final class BlockLog {
+        int[] blocks = new int[16];
+        byte[] states = new byte[64];
+        short[] owners = new short[64];
+        int count;
+
+        void add(BoardStorage storage, int first, int cells) {
+            if (count == blocks.length) {
+                blocks = Arrays.copyOf(blocks, 2 * count);
+                states = Arrays.copyOf(states, 8 * count);
+                owners = Arrays.copyOf(owners, 8 * count);
+            }
+
+            blocks[count] = first;
+            for (int n = 0; n < cells; ++n) {
+                states[4 * count + n] = storage.getState(first + n);
+                owners[4 * count + n] = storage.getOwner(first + n);
+            }
+            ++count;
+        }
+    }
+}
@@ -0,0 +1,333 @@
+package com.loxon.javachallenge.memory;
+
+import com.loxon.javachallenge.memory.api.MemoryState;
+import com.loxon.javachallenge.memory.api.Player;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.CharBuffer;
+import java.util.List;
+
+/**
+ * Text of a board, as shown by {@link GameImplementation#visualize()}.
+ *
+ * The text is kept between calls and only the blocks changed since the
+ * previous call are rewritten (see {@link Board#nextChangedBlock(int)}).
+ * Every cell has a fixed place in the text: its state and owner take six
+ * characters, the index and the padding after it never change.
+ */
+class BoardRenderer {
+    static final int CELL_SIZE = 14;
+
+    // a fejlec a cellak ele kerul, jobbra igazitva, igy a kesz szoveg egy darabban van
+    private static final int HEADER_SPACE = 128;
+    // a folyamatos kiiras puffere, a tabla meretetol fuggetlen
+    private static final int CHUNK_SIZE = 8192;
+
+    private Board board;
+    private char[] text = new char[HEADER_SPACE];
+    private int end = HEADER_SPACE;
+    private final StringBuilder header = new StringBuilder(HEADER_SPACE);
+    private char[] chunk;
+
+    // tulajdonosonkent ket karakter, a 0. a tulajdonos nelkuli cellake
+    private char[] ownerIds = { '-', '-' };
+    private int ownerCount = 1;
+
+    /**
+     * Brings the text up to date and returns it.
+     */
+    String render(Board board, List<Player> owners, int round, int maxRounds) {
+        update(board, owners);
+        int start = writeHeader(round, maxRounds);
+        return new String(text, start, end - 1 - start);
+    }
+
+    /**
+     * Brings the text up to date and writes the header and the lines of the
+     * blocks changed since the previous call, every line for a new board.
+     */
+    void renderChanges(Board board, List<Player> owners, int round, int maxRounds, Appendable out)
+            throws IOException {
+
+        if (this.board != board) {
+            update(board, owners);
+            int start = writeHeader(round, maxRounds);
+            append(out, text, start, end - 1);
+            return;
+        }
+
+        updateOwners(owners);
+        int start = writeHeader(round, maxRounds);
+        append(out, text, start, HEADER_SPACE);
+
+        int blocks = (board.size() + 3) / 4;
+        for (int b = board.nextChangedBlock(0); b >= 0 && b < blocks; b = board.nextChangedBlock(b + 1)) {
+            int lineStart = writeBlock(b) - 1;
+            int lineEnd = (int) Math.min(offset(4L * b + 4) - 1, end - 1);
+            append(out, text, lineStart, lineEnd);
+        }
+        board.clearChanges();
+    }
+
+    private void update(Board board, List<Player> owners) {
+        updateOwners(owners);
+
+        if (this.board != board) {
+            this.board = board;
+            writeAll();
+        } else {
+            int blocks = (board.size() + 3) / 4;
+            for (int b = board.nextChangedBlock(0); b >= 0 && b < blocks; b = board.nextChangedBlock(b + 1)) {
+                writeBlock(b);
+            }
+        }
+        board.clearChanges();
+    }
+
+    private void updateOwners(List<Player> owners) {
+        if (ownerCount > owners.size()) {
+            return;
+        }
+
+        char[] ids = new char[2 * (owners.size() + 1)];
+        System.arraycopy(ownerIds, 0, ids, 0, 2 * ownerCount);
+        for (int o = ownerCount; o <= owners.size(); ++o) {
+            String name = owners.get(o - 1).getName();
+            switch (name.length()) {
+                case 0:
+                    ids[2 * o] = ' ';
+                    ids[2 * o + 1] = '?';
+                    break;
+
+                case 1:
+                    ids[2 * o] = ' ';
+                    ids[2 * o + 1] = name.charAt(0);
+                    break;
+
+                default:
+                    ids[2 * o] = name.charAt(0);
+                    ids[2 * o + 1] = name.charAt(1);
+                    break;
+            }
+        }
+        ownerIds = ids;
+        ownerCount = owners.size() + 1;
+    }
+
+    // a cella szovegenek eleje a header utan, a sorok "[" + 4 cella + "]\n" alakuak
+    private static long offset(long cell) {
+        long widths = 0;
+        long from = 0;
+        long limit = 10;
+        for (int digits = 1; from < cell; ++digits, limit *= 10) {
+            long to = Math.min(cell, limit);
+            widths += (to - from) * Math.max(CELL_SIZE, 9 + digits);
+            from = to;
+        }
+        return HEADER_SPACE + 1 + widths + 3 * (cell / 4);
+    }
+
+    private void writeAll() {
+        long length = offset(board.size());
+        if (length > Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException("Board is too large to visualize.");
+        }
+
+        if (text.length < length) {
+            text = new char[(int) length];
+        }
+        end = (int) length;
+
+        int pos = HEADER_SPACE;
+        text[pos++] = '[';
+        for (int i = 0; i < board.size(); ++i) {
+            pos = writeCell(text, pos, board, i);
+
+            if (i % 4 == 3) {
+                text[pos++] = ']';
+                text[pos++] = '\n';
+                text[pos++] = '[';
+            }
+        }
+    }
+
+    /**
+     * Writes the lines of the blocks in {@code [firstBlock, lastBlock)} in
+     * chunks, without keeping the text of the board. The lines are the same
+     * as in {@link #render(Board, List, int, int)}, so the whole board gives
+     * the same text.
+     */
+    void stream(Board board, List<Player> owners, int round, int maxRounds,
+                int firstBlock, int lastBlock, Appendable out) throws IOException {
+
+        updateOwners(owners);
+        int start = writeHeader(round, maxRounds);
+        append(out, text, start, HEADER_SPACE);
+
+        if (chunk == null) {
+            chunk = new char[CHUNK_SIZE];
+        }
+
+        int pos = 0;
+        for (int b = firstBlock; b < lastBlock; ++b) {
+            // egy sor legfeljebb 4 * 19 + 3 karakter
+            if (pos > CHUNK_SIZE - 80) {
+                append(out, chunk, 0, pos);
+                pos = 0;
+            }
+
+            chunk[pos++] = '[';
+            int first = 4 * b;
+            int last = Math.min(first + 4, board.size());
+            for (int i = first; i < last; ++i) {
+                pos = writeCell(chunk, pos, board, i);
+            }
+
+            if (last - first == 4) {
+                chunk[pos++] = ']';
+                chunk[pos++] = '\n';
+            } else {
+                // a tabla vegen csonka blokk, mint a teljes szovegben
+                --pos;
+            }
+        }
+
+        if (pos > 0) {
+            append(out, chunk, 0, pos);
+        }
+    }
+
+    // a Writer es a StringBuilder masolat nelkul kapja meg a karaktereket
+    private static void append(Appendable out, char[] chars, int from, int to) throws IOException {
+        if (out instanceof Writer) {
+            ((Writer) out).write(chars, from, to - from);
+        } else if (out instanceof StringBuilder) {
+            ((StringBuilder) out).append(chars, from, to - from);
+        } else {
+            out.append(CharBuffer.wrap(chars), from, to);
+        }
+    }
+
+    private static int digits(int i) {
+        int digits = 1;
+        while (i >= 10) {
+            i /= 10;
+            ++digits;
+        }
+        return digits;
+    }
+
+    /**
+     * Rewrites the states of a block.
+     * @return position of the first cell of the block
+     */
+    private int writeBlock(int block) {
+        int first = 4 * block;
+        int start = (int) offset(first);
+        int pos = start;
+        for (int i = first; i < first + 4 && i < board.size(); ++i) {
+            writeState(pos, i);
+            pos += Math.max(CELL_SIZE, 9 + digits(i));
+        }
+        return start;
+    }
+
+    private void writeState(int pos, int cell) {
+        writeState(text, pos, board, cell);
+    }
+
+    private void writeState(char[] to, int pos, Board board, int cell) {
+        MemoryState state = board.getState(cell);
+        if (state == MemoryState.SYSTEM) {
+            "(SYS )".getChars(0, 6, to, pos);
+        } else if (state == MemoryState.FREE) {
+            "(FREE)".getChars(0, 6, to, pos);
+        } else {
+            int owner = board.getOwner(cell);
+            to[pos] = '(';
+            to[pos + 1] = convertState(state);
+            to[pos + 2] = ':';
+            to[pos + 3] = ownerIds[2 * owner];
+            to[pos + 4] = ownerIds[2 * owner + 1];
+            to[pos + 5] = ')';
+        }
+    }
+
+    /**
+     * Writes the whole text of a cell, padded to {@link #CELL_SIZE}.
+     * @return position after the cell
+     */
+    private int writeCell(char[] to, int pos, Board board, int cell) {
+        int cellStart = pos;
+        writeState(to, pos, board, cell);
+        pos += 6;
+
+        to[pos++] = ' ';
+        to[pos++] = '@';
+        to[pos++] = ' ';
+        int digitsEnd = pos + digits(cell);
+        for (int n = cell, d = digitsEnd - 1; d >= pos; n /= 10, --d) {
+            to[d] = (char) ('0' + n % 10);
+        }
+        pos = digitsEnd;
+        while (pos - cellStart < CELL_SIZE) {
+            to[pos++] = ' ';
+        }
+        return pos;
+    }
+
+    private static char convertState(MemoryState state) {
+        char stateChar = '?';
+        switch(state) {
+            case FREE:
+            case FORTIFIED:
+                stateChar =  'F';
+                break;
+
+            case SYSTEM:
+                stateChar = 'S';
+                break;
+
+            case CORRUPT:
+                stateChar = 'C';
+                break;
+
+            case ALLOCATED:
+                stateChar = 'A';
+                break;
+        }
+        return stateChar;
+    }
+
+    /**
+     * Writes the header before the cells.
+     * @return start of the header in the text
+     */
+    private int writeHeader(int round, int maxRounds) {
+        header.setLength(0);
+        header.append(" Round ")
+              .append(round)
+              .append('\\')
+              .append(maxRounds)
+              .append(' ');
+        int roundLength = header.length();
+
+        int adorner = (CELL_SIZE * 4) / 2 - (roundLength / 2) + 1;
+        int length = 1 + 2 * adorner + roundLength + 1;
+        int start = HEADER_SPACE - length;
+
+        int pos = start;
+        text[pos++] = '\n';
+        for (int i = 0; i < adorner; ++i) {
+            text[pos++] = '=';
+        }
+        header.getChars(0, roundLength, text, pos);
+        pos += roundLength;
+        for (int i = 0; i < adorner; ++i) {
+            text[pos++] = '=';
+        }
+        text[pos] = '\n';
+        return start;
+    }
+}
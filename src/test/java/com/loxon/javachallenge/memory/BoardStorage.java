@@ -0,0 +1,136 @@
+package com.loxon.javachallenge.memory;
+
+import java.nio.ByteBuffer;
+import java.nio.ShortBuffer;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Backing arrays of one or more boards.
+ *
+ * The shards of a board executed by {@link ShardedRound} work on ranges of
+ * the same arrays as the board.
+ *
+ * Cell states and owners are split into pages of {@link #PAGE_SIZE} cells.
+ * A forked storage shares the pages of its source until one of the two writes
+ * a page, only then is that page copied.
+ */
+class BoardStorage {
+    static final int PAGE_SHIFT = 12;
+    static final int PAGE_SIZE = 1 << PAGE_SHIFT;
+    static final int PAGE_MASK = PAGE_SIZE - 1;
+
+    private final byte[][] statePages;
+    private final short[][] ownerPages;
+    // a lap mas tarolokkal kozos, iras elott le kell masolni;
+    // tomb, mert kulonbozo lapok kulon szalakon is irhatok
+    private final boolean[] sharedPages;
+
+    final BitSet written;
+    final BitSet failedSwap;
+
+    BoardStorage(int cells) {
+        int pageCount = (cells + PAGE_MASK) >>> PAGE_SHIFT;
+        statePages = new byte[pageCount][];
+        ownerPages = new short[pageCount][];
+        sharedPages = new boolean[pageCount];
+
+        for (int p = 0; p < pageCount; ++p) {
+            int length = Math.min(PAGE_SIZE, cells - (p << PAGE_SHIFT));
+            statePages[p] = new byte[length];
+            ownerPages[p] = new short[length];
+        }
+
+        written = new BitSet(cells);
+        failedSwap = new BitSet(cells);
+    }
+
+    private BoardStorage(BoardStorage source, int from, int to) {
+        statePages = new byte[source.statePages.length][];
+        ownerPages = new short[source.ownerPages.length][];
+        sharedPages = new boolean[statePages.length];
+
+        int firstPage = from >>> PAGE_SHIFT;
+        int lastPage = (to + PAGE_MASK) >>> PAGE_SHIFT;
+        System.arraycopy(source.statePages, firstPage, statePages, firstPage, lastPage - firstPage);
+        System.arraycopy(source.ownerPages, firstPage, ownerPages, firstPage, lastPage - firstPage);
+        Arrays.fill(sharedPages, firstPage, lastPage, true);
+        Arrays.fill(source.sharedPages, firstPage, lastPage, true);
+
+        // a kor eleji flagek nem oroklodnek, a bitsetek igeny szerint nonek
+        written = new BitSet();
+        failedSwap = new BitSet();
+    }
+
+    /**
+     * Creates a storage sharing the pages of the cells in {@code [from, to)}
+     * with this one. Cells outside of the range are not accessible in the fork.
+     * Only the page table is copied, the cost grows with the number of pages.
+     */
+    BoardStorage fork(int from, int to) {
+        return new BoardStorage(this, from, to);
+    }
+
+    byte getState(int i) {
+        return statePages[i >>> PAGE_SHIFT][i & PAGE_MASK];
+    }
+
+    short getOwner(int i) {
+        return ownerPages[i >>> PAGE_SHIFT][i & PAGE_MASK];
+    }
+
+    void set(int i, byte state, short owner) {
+        int p = i >>> PAGE_SHIFT;
+        unshare(p);
+
+        statePages[p][i & PAGE_MASK] = state;
+        ownerPages[p][i & PAGE_MASK] = owner;
+    }
+
+    /**
+     * Bulk copy of the states of {@code [from, from + count)} followed by their owners.
+     */
+    void write(ByteBuffer buffer, int from, int count) {
+        for (int i = from; i < from + count; ) {
+            int length = Math.min(from + count - i, PAGE_SIZE - (i & PAGE_MASK));
+            buffer.put(statePages[i >>> PAGE_SHIFT], i & PAGE_MASK, length);
+            i += length;
+        }
+
+        ShortBuffer owners = buffer.asShortBuffer();
+        for (int i = from; i < from + count; ) {
+            int length = Math.min(from + count - i, PAGE_SIZE - (i & PAGE_MASK));
+            owners.put(ownerPages[i >>> PAGE_SHIFT], i & PAGE_MASK, length);
+            i += length;
+        }
+        buffer.position(buffer.position() + 2 * count);
+    }
+
+    /**
+     * Reverse of {@link #write(ByteBuffer, int, int)}.
+     */
+    void read(ByteBuffer buffer, int from, int count) {
+        for (int i = from; i < from + count; ) {
+            int length = Math.min(from + count - i, PAGE_SIZE - (i & PAGE_MASK));
+            unshare(i >>> PAGE_SHIFT);
+            buffer.get(statePages[i >>> PAGE_SHIFT], i & PAGE_MASK, length);
+            i += length;
+        }
+
+        ShortBuffer owners = buffer.asShortBuffer();
+        for (int i = from; i < from + count; ) {
+            int length = Math.min(from + count - i, PAGE_SIZE - (i & PAGE_MASK));
+            owners.get(ownerPages[i >>> PAGE_SHIFT], i & PAGE_MASK, length);
+            i += length;
+        }
+        buffer.position(buffer.position() + 2 * count);
+    }
+
+    private void unshare(int p) {
+        if (sharedPages[p]) {
+            statePages[p] = statePages[p].clone();
+            ownerPages[p] = ownerPages[p].clone();
+            sharedPages[p] = false;
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package com.loxon.javachallenge.memory;
+
+import com.loxon.javachallenge.memory.api.Player;
+import com.loxon.javachallenge.memory.api.communication.general.Command;
+import com.loxon.javachallenge.memory.api.communication.general.Response;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Commands of a game collected from many threads for the next round.
+ *
+ * Any thread may {@link #submit(Command)} commands, one thread calls
+ * {@link #tick()} to execute them as the next round. Submitting takes no
+ * lock: a player claims the round with a compare-and-set on its own slot,
+ * so only the first command of a player is accepted in a round, like in
+ * {@link GameImplementation#nextRound(Command...)}. The command then gets
+ * the next place in the buffer of the round, so the commands run in the
+ * order they were accepted.
+ *
+ * There are two buffers: while a round runs on one of them, the commands
+ * of the following round go to the other. A buffer has a place for every
+ * player, and it is passed to the game as it is, the empty places are null.
+ */
+public class CommandInbox {
+    private final GameImplementation game;
+
+    // a jatekosok indexe a letrehozaskor, utana csak olvassuk
+    private final Map<Player, Integer> playerIndexes = new IdentityHashMap<>();
+
+    // a nyitott kor sorszama a felso, az elfoglalt helyek szama az also 32 biten
+    private final AtomicLong state = new AtomicLong(1L << 32);
+
+    // jatekosonkent a kor, amelyikre mar bekuldott parancsot
+    private final AtomicIntegerArray playerRounds;
+
+    // a kor parosanak megfeleloen valtakozo pufferek es a beirt helyek szama
+    private final Command[][] buffers;
+    private final Object[][] attachments;
+    private final AtomicIntegerArray published = new AtomicIntegerArray(2);
+
+    /**
+     * Creates the inbox of a started game. Only the players registered before
+     * the inbox was created can submit commands.
+     */
+    public CommandInbox(GameImplementation game) {
+        this.game = game;
+
+        List<Player> players = game.getPlayers();
+        for (int i = 0; i < players.size(); ++i) {
+            playerIndexes.put(players.get(i), i);
+        }
+        playerRounds = new AtomicIntegerArray(players.size());
+        buffers = new Command[][] { new Command[players.size()], new Command[players.size()] };
+        attachments = new Object[][] { new Object[players.size()], new Object[players.size()] };
+    }
+
+    /**
+     * Receives a played round before the inbox is reused for later rounds.
+     */
+    public interface RoundListener {
+        /**
+         * @param responses responses of the round, null if the game is over.
+         * @param commands the commands of the round in the first {@code count}
+         *                 places, in the order they were accepted.
+         * @param attachments the attachments of the commands, at the same places.
+         */
+        void roundPlayed(List<Response> responses, Command[] commands, Object[] attachments, int count);
+
+        /**
+         * Called instead of {@link #roundPlayed} if the round fails.
+         */
+        default void roundFailed(RuntimeException e, Command[] commands, Object[] attachments, int count) {
+        }
+    }
+
+    /**
+     * Adds a command to the next round. Can be called from any thread.
+     * @return false if the player of the command is not known by the inbox
+     *         or has already submitted a command for the next round.
+     */
+    public boolean submit(Command command) {
+        return submit(command, null);
+    }
+
+    /**
+     * Adds a command to the next round with an object passed back with the
+     * command to the {@link RoundListener} of {@link #tick(RoundListener)}.
+     * @return false if the command is not accepted, see {@link #submit(Command)}.
+     */
+    public boolean submit(Command command, Object attachment) {
+        Integer index = command == null ? null : playerIndexes.get(command.getPlayer());
+        if (index == null) {
+            return false;
+        }
+
+        int claimed = 0;
+        while (true) {
+            long current = state.get();
+            int round = (int) (current >>> 32);
+
+            // a jatekos lefoglalja a kort; ha kozben uj kor nyilt, annak is megprobalja
+            if (claimed != round) {
+                int previous = playerRounds.get(index);
+                if (previous - round > 0) {
+                    // regi allapotot olvastunk, a jatekos kora nem mehet vissza
+                    continue;
+                }
+                if (previous == round || !playerRounds.compareAndSet(index, previous, round)) {
+                    return false;
+                }
+                claimed = round;
+            }
+
+            if (state.compareAndSet(current, current + 1)) {
+                int slot = (int) current;
+                buffers[round & 1][slot] = command;
+                attachments[round & 1][slot] = attachment;
+                published.incrementAndGet(round & 1);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Executes the commands submitted so far as the next round of the game.
+     * Must not be called from more than one thread at a time. Commands
+     * submitted during the call go to the round after.
+     * @return responses of the round, null if the game is over.
+     */
+    public List<Response> tick() {
+        return tick(null);
+    }
+
+    /**
+     * Executes the next round like {@link #tick()}, then passes it to the
+     * listener.
+     * @param listener null if not needed.
+     * @return responses of the round, null if the game is over.
+     */
+    public List<Response> tick(RoundListener listener) {
+        long current = closeRound();
+        int round = (int) (current >>> 32);
+        int count = (int) current;
+        Command[] buffer = buffers[round & 1];
+
+        try {
+            List<Response> responses;
+            try {
+                responses = game.nextRound(buffer);
+            } catch (RuntimeException e) {
+                if (listener != null) {
+                    listener.roundFailed(e, buffer, attachments[round & 1], count);
+                }
+                throw e;
+            }
+
+            if (listener != null) {
+                listener.roundPlayed(responses, buffer, attachments[round & 1], count);
+            }
+            return responses;
+        } finally {
+            clear(round, count);
+        }
+    }
+
+    /**
+     * Drops the commands submitted so far without playing them and passes
+     * them to {@link RoundListener#roundFailed}, as if the round failed.
+     * Must not be called at the same time as {@link #tick()}.
+     */
+    public void fail(RuntimeException e, RoundListener listener) {
+        long current = closeRound();
+        int round = (int) (current >>> 32);
+        int count = (int) current;
+
+        try {
+            listener.roundFailed(e, buffers[round & 1], attachments[round & 1], count);
+        } finally {
+            clear(round, count);
+        }
+    }
+
+    // uj kort nyit, es megvarja, hogy a lezart kor minden parancsa beirodjon
+    private long closeRound() {
+        long current = state.get();
+        while (!state.compareAndSet(current, (current & 0xFFFFFFFF00000000L) + (1L << 32))) {
+            current = state.get();
+        }
+
+        // a helyet mar lefoglalo szalak meg beirhatjak a parancsukat
+        int round = (int) (current >>> 32);
+        while (published.get(round & 1) != (int) current) {
+            Thread.yield();
+        }
+        return current;
+    }
+
+    private void clear(int round, int count) {
+        Arrays.fill(buffers[round & 1], 0, count, null);
+        Arrays.fill(attachments[round & 1], 0, count, null);
+        published.set(round & 1, 0);
+    }
+}
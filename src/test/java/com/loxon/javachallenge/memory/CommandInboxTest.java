@@ -0,0 +1,84 @@
+package com.loxon.javachallenge.memory;
+
+import com.loxon.javachallenge.memory.api.MemoryState;
+import com.loxon.javachallenge.memory.api.Player;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandAllocate;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandScan;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandStats;
+import com.loxon.javachallenge.memory.api.communication.general.Response;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class CommandInboxTest {
+
+    private final static MemoryState F  = MemoryState.FREE;
+    private final static MemoryState AM = MemoryState.OWNED_ALLOCATED;
+
+    @Test
+    public void testOneCommandPerRound() {
+        final GameImplementation game = new GameImplementation();
+        final Player pA = game.registerPlayer("a");
+        final Player pB = game.registerPlayer("b");
+        game.startGame(Collections.nCopies(16, F), 10);
+        final CommandInbox inbox = new CommandInbox(game);
+
+        //Only the first command of a player is accepted in a round
+        Assert.assertTrue(inbox.submit(new CommandAllocate(pA, 0, 1)));
+        Assert.assertFalse(inbox.submit(new CommandAllocate(pA, 2, 3)));
+        Assert.assertTrue(inbox.submit(new CommandAllocate(pB, 8, 9)));
+        Assert.assertFalse(inbox.submit(new CommandAllocate(new Player("x"), 2, 3)));
+        Assert.assertFalse(inbox.submit(null));
+        TestGames.assertResponse(inbox.tick(),
+            TestGames.list(pA, 0, 1),
+            TestGames.list(pB, 8, 9));
+
+        //Players can submit again for the next round
+        Assert.assertTrue(inbox.submit(new CommandScan(pA, 0)));
+        TestGames.assertResponse(inbox.tick(),
+            TestGames.cells(pA, 0, AM, AM, F, F));
+    }
+
+    @Test
+    public void testConcurrentSubmit() throws InterruptedException {
+        final GameImplementation game = new GameImplementation();
+        final Player[] players = TestGames.startGame(game, Collections.nCopies(16, F), 100, 20);
+        final CommandInbox inbox = new CommandInbox(game);
+
+        //Threads race for every player, one command of each is accepted per round
+        for ( int round = 0; round < 10; ++round ) {
+            final CountDownLatch start = new CountDownLatch(1);
+            final AtomicInteger accepted = new AtomicInteger();
+            final List<Thread> threads = new ArrayList<>();
+            for ( int t = 0; t < 4; ++t ) {
+                final Thread thread = new Thread(() -> {
+                    try {
+                        start.await();
+                    } catch ( InterruptedException e ) {
+                        return;
+                    }
+                    for ( final Player p : players ) {
+                        if ( inbox.submit(new CommandStats(p)) ) {
+                            accepted.incrementAndGet();
+                        }
+                    }
+                });
+                thread.start();
+                threads.add(thread);
+            }
+            start.countDown();
+            for ( final Thread thread : threads ) {
+                thread.join();
+            }
+
+            final List<Response> responses = inbox.tick();
+            Assert.assertEquals(players.length, accepted.get());
+            Assert.assertEquals(players.length, responses.size());
+        }
+    }
+}
@@ -1,12 +0,0 @@
-package com.loxon.javachallenge.memory;
-
-public enum CommandType {
-    ALLOCATE,
-    FORTIFY,
-    FREE,
-    RECOVER,
-    SCAN,
-    STATS,
-    SWAP,
-    UNKNOWN
-}
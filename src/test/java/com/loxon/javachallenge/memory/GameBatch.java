@@ -0,0 +1,73 @@
+package com.loxon.javachallenge.memory;
+
+import com.loxon.javachallenge.memory.api.MemoryState;
+import com.loxon.javachallenge.memory.api.Player;
+import com.loxon.javachallenge.memory.api.PlayerScore;
+import com.loxon.javachallenge.memory.api.communication.general.Command;
+import com.loxon.javachallenge.memory.api.communication.general.Response;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Games advancing together, one round of every game per call.
+ *
+ * A convenience for drivers ticking many games at the same time. The games
+ * are independent and a call plays them one after the other, so a batch is
+ * not faster than calling {@link GameImplementation#nextRound} on each game.
+ */
+public class GameBatch {
+    private static final Command[] NO_COMMANDS = new Command[0];
+
+    private final GameImplementation[] games;
+
+    /**
+     * Creates and starts the games.
+     * @param initialMemories initial state of memory for each game.
+     * @param rounds number of round to be played in every game.
+     */
+    public GameBatch(List<List<MemoryState>> initialMemories, int rounds) {
+        if (rounds <= 0) {
+            throw new IllegalArgumentException("Number of rounds must greater than zero.");
+        }
+
+        games = new GameImplementation[initialMemories.size()];
+        for (int i = 0; i < games.length; ++i) {
+            games[i] = new GameImplementation();
+            games[i].startGame(initialMemories.get(i), rounds);
+        }
+    }
+
+    public int size() {
+        return games.length;
+    }
+
+    public Player registerPlayer(int game, String name) {
+        return games[game].registerPlayer(name);
+    }
+
+    /**
+     * Executes the next round of every game.
+     * @param commands commands of each game, indexed like the games. Missing or
+     *                 {@code null} entries mean no commands for that game.
+     * @return responses of each game, {@code null} for games already over.
+     */
+    public List<List<Response>> nextRounds(Command[]... commands) {
+        List<List<Response>> responses = new ArrayList<>(games.length);
+        for (int i = 0; i < games.length; ++i) {
+            Command[] gameCommands = i < commands.length && commands[i] != null ?
+                    commands[i] : NO_COMMANDS;
+
+            responses.add(games[i].nextRound(gameCommands));
+        }
+        return responses;
+    }
+
+    public List<PlayerScore> getScores(int game) {
+        return games[game].getScores();
+    }
+
+    public String visualize(int game) {
+        return games[game].visualize();
+    }
+}
@@ -0,0 +1,65 @@
+package com.loxon.javachallenge.memory;
+
+import com.loxon.javachallenge.memory.api.Game;
+import com.loxon.javachallenge.memory.api.MemoryState;
+import com.loxon.javachallenge.memory.api.Player;
+import com.loxon.javachallenge.memory.api.communication.general.Command;
+import com.loxon.javachallenge.memory.api.communication.general.Response;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class GameBatchTest {
+
+    @Test
+    public void testSameAsSingleGames() {
+        //Sizes off the block boundary too
+        final int[] sizes = { 22, 37, 64, 9 };
+        final List<List<MemoryState>> memories = new ArrayList<>();
+        for ( int i = 0; i < sizes.length; ++i ) {
+            memories.add(TestGames.randomMemory(new Random(20 + i), sizes[i]));
+        }
+        final GameBatch batch = new GameBatch(memories, 30);
+        final Game[] single = new Game[sizes.length];
+        final Player[][] batchPlayers = new Player[sizes.length][];
+        final Player[][] singlePlayers = new Player[sizes.length][];
+        for ( int i = 0; i < sizes.length; ++i ) {
+            batchPlayers[i] = new Player[6];
+            for ( int p = 0; p < 6; ++p ) {
+                batchPlayers[i][p] = batch.registerPlayer(i, "p" + p);
+            }
+            single[i] = GameImplementationFactory.get();
+            singlePlayers[i] = TestGames.startGame(single[i], memories.get(i), 6, 30);
+        }
+
+        //Every game answers like the same game played alone, also rounds without commands
+        for ( int round = 0; round < 30; ++round ) {
+            final Command[][] commands = new Command[round % 5 == 4 ? sizes.length - 1 : sizes.length][];
+            final long[] seeds = new long[sizes.length];
+            for ( int i = 0; i < commands.length; ++i ) {
+                seeds[i] = 1000L * round + i;
+                commands[i] = i == round % sizes.length ? null :
+                    TestGames.randomRounds(sizes[i], sizes[i]).create(new Random(seeds[i]), batchPlayers[i]);
+            }
+
+            final List<List<Response>> responses = batch.nextRounds(commands);
+            Assert.assertEquals(sizes.length, responses.size());
+            for ( int i = 0; i < sizes.length; ++i ) {
+                final boolean played = i < commands.length && commands[i] != null;
+                TestGames.assertSameResponses(played ?
+                        TestGames.playRound(single[i], singlePlayers[i], seeds[i], TestGames.randomRounds(sizes[i], sizes[i])) :
+                        single[i].nextRound(),
+                    responses.get(i));
+            }
+        }
+
+        for ( int i = 0; i < sizes.length; ++i ) {
+            Assert.assertEquals(single[i].visualize(), batch.visualize(i));
+            Assert.assertEquals(TestGames.scoresOf(single[i]), TestGames.scoresOf(batch.getScores(i)));
+        }
+        Assert.assertNull(batch.nextRounds().get(0));
+    }
+}
@@ -1,489 +1,688 @@
-package com.loxon.javachallenge.memory;
-
-import com.loxon.javachallenge.memory.api.Game;
-import com.loxon.javachallenge.memory.api.MemoryState;
-import com.loxon.javachallenge.memory.api.Player;
-import com.loxon.javachallenge.memory.api.PlayerScore;
-import com.loxon.javachallenge.memory.api.communication.commands.*;
-import com.loxon.javachallenge.memory.api.communication.general.Command;
-import com.loxon.javachallenge.memory.api.communication.general.CommandGeneral;
-import com.loxon.javachallenge.memory.api.communication.general.Response;
-
-import java.util.*;
-import java.util.function.Consumer;
-import java.util.function.Predicate;
-import java.util.stream.Collectors;
-
-public class GameImplementation implements Game {
-    private Map<Player, Boolean> players = new HashMap<>();
-    private Cell[] cells;
-
-    private int maxRounds;
-    private int roundCounter;
-
-    @Override
-    public Player registerPlayer(String name) {
-        Player p = new Player(name);
-        players.put(p, true);
-        return p;
-    }
-
-    @Override
-    public void startGame(List<MemoryState> initialMemory, int rounds) {
-        if (rounds <= 0) {
-            throw new IllegalArgumentException("Number of rounds must greater than zero.");
-        }
-
-        maxRounds = rounds;
-        roundCounter = 0;
-
-        cells = new Cell[initialMemory.size()];
-        for (int i = 0; i < initialMemory.size(); ++i){
-            cells[i] = new Cell(i, initialMemory.get(i));
-        }
-    }
-
-
-    // Preparation
-    private boolean isPlayerValid(Player p) {
-        boolean isValid =
-                players.containsKey(p) &&
-                players.get(p);
-
-        if (isValid) players.replace(p, false);
-
-        return isValid;
-    }
-
-
-    // Execution
-    // igazabol itt is lehetne EvaluatedCommand a parameter
-    private void executeGeneral(CommandGeneral cmd, Consumer<Cell> beginAction) {
-        for (Integer i : cmd.getCells())
-            if (i != null)
-                beginAction.accept(cells[i]);
-    }
-
-    private void allocate(final CommandAllocate cmd) {
-        executeGeneral(cmd, c -> c.allocate(cmd.getPlayer()));
-    }
-
-    private void free(final CommandFree cmd) {
-        executeGeneral(cmd, c -> c.free());
-    }
-
-    private void recover(final CommandRecover cmd) {
-        executeGeneral(cmd, c -> c.recover(cmd.getPlayer()));
-    }
-
-    private void swap(final CommandSwap cmd) {
-        List<Integer> toSwap = cmd.getCells();
-        Cell.swap(toSwap.get(0), toSwap.get(1), cells);
-    }
-
-
-    // Evaluation
-    private static CommandType getCommandType(Command c) {
-        Class cls = c.getClass();
-
-        if (cls == CommandAllocate.class) {
-            return CommandType.ALLOCATE;
-        }
-        else if (cls == CommandFortify.class) {
-            return CommandType.FORTIFY;
-        }
-        else if (cls == CommandFree.class) {
-            return CommandType.FREE;
-        }
-        else if (cls == CommandRecover.class) {
-            return CommandType.RECOVER;
-        }
-        else if (cls == CommandScan.class) {
-            return CommandType.SCAN;
-        }
-        else if (cls == CommandStats.class) {
-            return CommandType.STATS;
-        }
-        else if (cls == CommandSwap.class) {
-            return CommandType.SWAP;
-        }
-
-        return CommandType.UNKNOWN;
-    }
-
-    private boolean isCommandValid(Command c, CommandType type) {
-        switch (type) {
-            case SCAN:
-                Integer cell = ((CommandScan)c).getCell();
-                return cell != null && cell >= 0 && cell < cells.length;
-
-            case SWAP:
-                List<Integer> swapping = ((CommandGeneral)c).getCells();
-
-                // need exactly 2 cells
-                if (swapping.size() != 2) {
-                    return false;
-                }
-
-                // cannot be null or out of range
-                for (Integer i : swapping) {
-                    if (i == null)
-                        return false;
-
-                    if (i < 0 || i >= cells.length)
-                        return false;
-                }
-
-                break;
-
-            case ALLOCATE:
-            case FREE:
-            case RECOVER:
-            case FORTIFY:
-                List<Integer> range = ((CommandGeneral)c).getCells();
-
-                // check for more than 2 ids
-                if (range.size() > 2)
-                    return false;
-
-                // check if ids are in range
-                int block = -1;
-                for (Integer i : range) {
-                    if (i == null)
-                        continue;
-
-                    if (block == -1)
-                        block = i / 4;
-
-                    if (i < 0 || i >= cells.length || block != i / 4)
-                        return false;
-                }
-                break;
-
-            case UNKNOWN:
-                return false;
-        }
-
-        return true;
-    }
-
-    private class EvaluatedCommand {
-        final CommandType type;
-        final Command command;
-        final boolean isValid;
-
-        public EvaluatedCommand(Command command) {
-            this.command = command;
-            this.type = getCommandType(command);
-            this.isValid = isCommandValid(command, type);
-        }
-
-        public Player getPlayer() {
-            return command.getPlayer();
-        }
-    }
-
-    private Set<EvaluatedCommand> evaluate(Command[] commands) {
-        Set<EvaluatedCommand> eval = Arrays
-                .stream(commands)
-                .filter(cmd -> isPlayerValid(cmd.getPlayer()))
-                .map(cmd -> new EvaluatedCommand(cmd))
-                .collect(Collectors.toSet());
-
-        for (EvaluatedCommand ev : eval) {
-            if (ev.isValid) {
-                switch (ev.type) {
-                    case ALLOCATE:
-                        allocate((CommandAllocate)ev.command);
-                        break;
-
-                    case FREE:
-                        free((CommandFree)ev.command);
-                        break;
-
-                    case RECOVER:
-                        recover((CommandRecover)ev.command);
-                        break;
-
-                    case SWAP:
-                        swap((CommandSwap)ev.command);
-                        break;
-
-                    default:
-                        break;
-                }
-            }
-        }
-
-        return eval;
-    }
-
-
-    // Response
-    private ResponseSuccessList respondGeneral(
-            EvaluatedCommand c, Predicate<Cell> successCondition) {
-
-        CommandGeneral gen = (CommandGeneral)c.command;
-
-        List<Integer> succ = new ArrayList<>(2);
-        if (c.isValid) {
-            for (Integer i : gen.getCells()) {
-                if (i != null &&
-                    successCondition.test(cells[i])) {
-
-                    succ.add(i);
-                }
-            }
-        }
-        return new ResponseSuccessList(c.getPlayer(), succ);
-    }
-
-    private ResponseSuccessList respondAllocRecover(EvaluatedCommand allocRecover) {
-        return respondGeneral(allocRecover, cell ->
-                cell.getState(allocRecover.getPlayer()) == MemoryState.OWNED_ALLOCATED);
-    }
-
-    private ResponseSuccessList respondFree(EvaluatedCommand free) {
-        return respondGeneral(free,
-                cell -> cell.getState() == MemoryState.FREE);
-    }
-
-    private ResponseSuccessList respondFortify(EvaluatedCommand fort) {
-        return respondGeneral(fort,
-                cell -> cell.fortify());
-    }
-
-    private ResponseSuccessList respondSwap(EvaluatedCommand swap) {
-        return respondGeneral(swap,
-                cell -> cell.successfulySwapped());
-    }
-
-    private ResponseScan respondScan(CommandScan scan, boolean isValid) {
-        List<MemoryState> states = new ArrayList<>(4);
-        Integer firstCell = -1;
-        Player p = scan.getPlayer();
-
-        if (isValid) {
-            // a blokk elso cellaja
-            firstCell = scan.getCell();
-            firstCell = firstCell - (firstCell % 4);
-
-            for (Cell c : cells)
-                if (c.getBlock() == firstCell / 4)
-                    states.add(c.getState(p));
-
-        }
-
-        return new ResponseScan(p, firstCell, states);
-    }
-
-    private ResponseStats respondStats(CommandStats stats) {
-        ResponseStats s = new ResponseStats(stats.getPlayer());
-
-        int allocated = 0;
-        int corrupt = 0;
-        int free = 0;
-        int system = 0;
-        int fortified = 0;
-        int owned = 0;
-
-        for (Cell c : cells) {
-            switch (c.getState()) {
-                case ALLOCATED:
-                    ++allocated;
-                    break;
-
-                case CORRUPT:
-                    ++corrupt;
-                    break;
-
-                case FREE:
-                    ++free;
-                    break;
-
-                case SYSTEM:
-                    ++system;
-                    break;
-
-                case FORTIFIED:
-                    ++fortified;
-                    break;
-            }
-
-            if (c.getOwner() == stats.getPlayer()) {
-                ++owned;
-            }
-        }
-
-        s.setAllocatedCells(allocated);
-        s.setCellCount(cells.length);
-        s.setCorruptCells(corrupt);
-        s.setFortifiedCells(fortified);
-        s.setFreeCells(free);
-        s.setSystemCells(system);
-        s.setOwnedCells(owned);
-        s.setRemainingRounds(maxRounds - roundCounter);
-
-        return s;
-    }
-
-    private List<Response> respond(Set<EvaluatedCommand> evaluated) {
-        List<Response> results = new ArrayList<>();
-
-        for (EvaluatedCommand ec : evaluated) {
-            Response r = null;
-            switch (ec.type) {
-                case STATS:
-                    r = respondStats((CommandStats)ec.command);
-                    break;
-
-                case ALLOCATE:
-                case RECOVER:
-                    r = respondAllocRecover(ec);
-                    break;
-
-                case FREE:
-                    r = respondFree(ec);
-                    break;
-
-                case SWAP:
-                    r = respondSwap(ec);
-                    break;
-            }
-            if (r != null) results.add(r);
-        }
-
-        // fortify a vegen
-        evaluated.stream()
-            .filter(ec -> ec.type == CommandType.FORTIFY)
-            .map(ec -> respondFortify(ec))
-            .forEach(ec -> results.add(ec));
-
-        // scan minden utan
-        evaluated.stream()
-            .filter(ec -> ec.type == CommandType.SCAN)
-            .map(ec -> respondScan((CommandScan)ec.command, ec.isValid))
-            .forEach(resp -> results.add(resp));
-
-        return results;
-    }
-
-    // Main loop
-    @Override
-    public List<Response> nextRound(Command... requests) {
-        if (roundCounter < maxRounds) {
-            ++roundCounter;
-        } else {
-            System.out.println("Game over.");
-            return null;
-        }
-
-        // set start of round conditions
-        for (Cell c : cells)
-            c.resetWrites();
-
-        Cell.clearSwapHistory();
-
-        //TODO use iterator to reset player status
-        players.entrySet().forEach(e -> e.setValue(true));
-
-        // evaluate commands and respond
-        Set<EvaluatedCommand> evaluated = evaluate(requests);
-
-        return respond(evaluated);
-    }
-
-
-    // Scores
-    private PlayerScore calculateScore(Player p) {
-        PlayerScore score = new PlayerScore(p);
-
-        int fortified = 0;
-        int ownedCells = 0;
-        int ownedBlocks = 0;
-
-        int currentBlock = -1;
-        int blockCellsOwned = 0;
-
-        for (Cell c : cells) {
-            if (c.getOwner() == p) {
-                MemoryState state = c.getState(p);
-                if (state == MemoryState.OWNED_ALLOCATED) {
-                    ++ownedCells;
-                }
-
-                if (state == MemoryState.OWNED_FORTIFIED) {
-                    ++ownedCells;
-                    ++fortified;
-                }
-
-                if (currentBlock == -1) {
-                    currentBlock = c.getBlock();
-                }
-
-                if (c.getBlock() != currentBlock) {
-                    currentBlock = -1;
-                    blockCellsOwned = 0;
-                } else {
-                    ++blockCellsOwned;
-                    if (blockCellsOwned == 4) {
-                        ++ownedBlocks;
-                    }
-                }
-            }
-        }
-
-        score.setFortifiedCells(fortified);
-        score.setOwnedCells(ownedCells);
-        score.setOwnedBlocks(ownedBlocks);
-        score.setTotalScore(ownedCells + 4 * ownedBlocks);
-        return score;
-    }
-
-    @Override
-    public List<PlayerScore> getScores() {
-        return players.keySet().stream()
-                .map(player -> calculateScore(player))
-                .collect(Collectors.toList());
-    }
-
-
-    // kicsit atlathatobba tettem a jatekteret
-    @Override
-    public String visualize() {
-        final int cellSize = 14;
-
-        StringBuilder sb = new StringBuilder();
-
-        StringBuilder roundStr = new StringBuilder();
-        roundStr.append(" Round ")
-                .append(roundCounter)
-                .append('\\')
-                .append(maxRounds)
-                .append(' ');
-
-        char[] adorner = new char[(cellSize * 4) / 2 - (roundStr.length() / 2) + 1];
-        for (int i = 0; i < adorner.length; i++) {
-            adorner[i] = '=';
-        }
-
-        sb.append('\n')
-          .append(adorner)
-          .append(roundStr)
-          .append(adorner)
-          .append("\n");
-
-        sb.append("[");
-        for (int i = 0; i < cells.length; ++i){
-            sb.append(cells[i].toString(cellSize));
-            if (i % 4 == 3) {
-                sb.append("]\n[");
-            }
-        }
-
-        String vis = sb.toString();
-        vis = vis.substring(0, vis.length() - 1);
-
-        return vis;
-    }
-}
+package com.loxon.javachallenge.memory;
+
+import com.loxon.javachallenge.memory.api.Game;
+import com.loxon.javachallenge.memory.api.MemoryState;
+import com.loxon.javachallenge.memory.api.Player;
+import com.loxon.javachallenge.memory.api.PlayerScore;
+import com.loxon.javachallenge.memory.api.communication.commands.*;
+import com.loxon.javachallenge.memory.api.communication.general.Command;
+import com.loxon.javachallenge.memory.api.communication.general.CommandGeneral;
+import com.loxon.javachallenge.memory.api.communication.general.CommandType;
+import com.loxon.javachallenge.memory.api.communication.general.Response;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntConsumer;
+
+public class GameImplementation implements Game {
+    private static final EnumSet<CommandType> EXECUTED_TYPES = EnumSet.of(
+            CommandType.ALLOCATE, CommandType.FREE, CommandType.RECOVER, CommandType.SWAP);
+    private static final EnumSet<CommandType> FORTIFY_TYPES = EnumSet.of(CommandType.FORTIFY);
+
+    // a tablan a jatekosok indexe szerepel, 0 = nincs tulajdonos
+    // a jatekosokat peldany szerint keressuk, a Player.hashCode-ra nincs szukseg
+    private List<Player> owners = new ArrayList<>();
+    private Map<Player, Short> ownerIds = new IdentityHashMap<>();
+
+    // az a kor (epoch), amelyikben a jatekos utoljara parancsot kuldott, index szerint;
+    // az epoch minden korben no, igy a kor elejen nem kell semmit torolni
+    private int[] actedEpochs = new int[1];
+    private int epoch;
+
+    private Board board;
+
+    private int maxRounds;
+    private int roundCounter;
+
+    // a kor ervenyes parancsai beerkezesi sorrendben, a tombok korrol korre ujrahasznosulnak
+    private Command[] roundCommands = new Command[0];
+    private CommandType[] roundTypes = new CommandType[0];
+    private boolean[] roundValid = new boolean[0];
+    private int roundSize;
+
+    // parhuzamos vegrehajtasnal: a parancsok cellai es a fortify eredmenye cellankent egy bit
+    private ShardedRound shardedRound;
+    private int[] roundCells = new int[0];
+    private int[] roundFortified = new int[0];
+    private boolean fortifiedInShards;
+
+    // valaszok osszeallitasahoz, a valasz objektumok masolatot kapnak
+    private int[] successCells = new int[2];
+    private MemoryState[] scannedStates = new MemoryState[4];
+
+    // ujrahasznosithato valaszok jatekosonkent (tulajdonos index szerint) es a kor eredmenylistaja
+    private boolean reuseResponses;
+    private ResponseSuccessList[] successResponses = new ResponseSuccessList[0];
+    private ResponseScan[] scanResponses = new ResponseScan[0];
+    private ResponseStats[] statsResponses = new ResponseStats[0];
+    private final List<Response> roundResults = new ArrayList<>();
+    private final List<Response> roundResultView = Collections.unmodifiableList(roundResults);
+
+    // a legutobbi megjelenites szovege, csak a valtozott blokkok irodnak ujra
+    private final BoardRenderer renderer = new BoardRenderer();
+
+    @Override
+    public Player registerPlayer(String name) {
+        if (owners.size() >= Short.MAX_VALUE) {
+            throw new IllegalStateException("Too many players.");
+        }
+
+        Player p = new Player(name);
+
+        owners.add(p);
+        ownerIds.put(p, (short) owners.size());
+        if (actedEpochs.length <= owners.size()) {
+            actedEpochs = Arrays.copyOf(actedEpochs, 2 * actedEpochs.length);
+        }
+        return p;
+    }
+
+    private short getOwnerId(Player p) {
+        Short id = ownerIds.get(p);
+        return id == null ? Board.NO_OWNER : id;
+    }
+
+    @Override
+    public void startGame(List<MemoryState> initialMemory, int rounds) {
+        startGame(new Board(initialMemory), rounds);
+    }
+
+    void startGame(Board initialBoard, int rounds) {
+        if (rounds <= 0) {
+            throw new IllegalArgumentException("Number of rounds must greater than zero.");
+        }
+
+        maxRounds = rounds;
+        roundCounter = 0;
+
+        board = initialBoard;
+    }
+
+    /**
+     * Continues a saved game: the board and the round counters are taken over,
+     * players have to be registered beforehand in the original order.
+     */
+    void restoreGame(Board savedBoard, int completedRounds, int rounds) {
+        startGame(savedBoard, rounds);
+        roundCounter = completedRounds;
+    }
+
+    /**
+     * Creates an independent copy of the game in its current state, e.g. to
+     * try several commands on the same board. The copy accepts commands of
+     * the already registered player instances. The board pages are shared
+     * with this game until one of the games writes them, so forking costs
+     * one pointer copy per page of the board.
+     */
+    public GameImplementation fork() {
+        GameImplementation fork = new GameImplementation();
+        fork.owners = new ArrayList<>(owners);
+        fork.ownerIds = new IdentityHashMap<>(ownerIds);
+        fork.actedEpochs = new int[actedEpochs.length];
+        fork.board = board == null ? null : board.fork();
+        fork.maxRounds = maxRounds;
+        fork.roundCounter = roundCounter;
+        fork.reuseResponses = reuseResponses;
+        if (shardedRound != null) {
+            fork.setParallelExecution(shardedRound.getPool(), shardedRound.getShardCells());
+        }
+        return fork;
+    }
+
+    /**
+     * Turns the reuse of response objects on or off. When turned on, every
+     * player has one response object of each kind, and these and the list
+     * returned by {@link #nextRound(Command...)} are overwritten by the next
+     * round: they have to be processed or copied before that.
+     */
+    public void setReuseResponses(boolean reuseResponses) {
+        this.reuseResponses = reuseResponses;
+    }
+
+    public boolean isReuseResponses() {
+        return reuseResponses;
+    }
+
+    /**
+     * Executes the commands of the rounds in parallel on the given pool. The
+     * board is split into shards of {@code shardCells} cells (rounded up to a
+     * multiple of 4096), commands of different shards run in parallel unless
+     * a swap connects the shards. The results are the same as those of the
+     * serial execution, it pays off on boards of millions of cells.
+     * @param pool the pool to use, {@code null} for serial execution.
+     */
+    public void setParallelExecution(ForkJoinPool pool, int shardCells) {
+        shardedRound = pool == null ? null : new ShardedRound(pool, shardCells);
+    }
+
+    /**
+     * Registered players in registration order, including the ones of a game
+     * restored by {@link GameSnapshot#load}.
+     * @return list of players
+     */
+    public List<Player> getPlayers() {
+        return Collections.unmodifiableList(owners);
+    }
+
+    Board getBoard() { return board; }
+
+    int getRoundCounter() { return roundCounter; }
+
+    int getMaxRounds() { return maxRounds; }
+
+    ShardedRound getShardedRound() { return shardedRound; }
+
+    // a tesztek ezzel allitjak az epochot az atfordulas ele
+    void setEpoch(int epoch) { this.epoch = epoch; }
+
+
+    // Preparation
+    private boolean isPlayerValid(Player p) {
+        short id = getOwnerId(p);
+        boolean isValid =
+                id != Board.NO_OWNER &&
+                actedEpochs[id] != epoch;
+
+        if (isValid) actedEpochs[id] = epoch;
+
+        return isValid;
+    }
+
+
+    // Execution
+    private void executeGeneral(CommandGeneral cmd, IntConsumer beginAction) {
+        for (int i = 0; i < cmd.getCellCount(); ++i)
+            if (cmd.hasCell(i))
+                beginAction.accept(cmd.getCell(i));
+    }
+
+    private void allocate(final Board target, final CommandAllocate cmd) {
+        final short owner = getOwnerId(cmd.getPlayer());
+        executeGeneral(cmd, c -> target.allocate(c, owner));
+    }
+
+    private void free(final Board target, final CommandFree cmd) {
+        executeGeneral(cmd, c -> target.free(c));
+    }
+
+    private void recover(final Board target, final CommandRecover cmd) {
+        final short owner = getOwnerId(cmd.getPlayer());
+        executeGeneral(cmd, c -> target.recover(c, owner));
+    }
+
+    private void swap(final Board target, final CommandSwap cmd) {
+        target.swap(cmd.getCell(0), cmd.getCell(1));
+    }
+
+    // a parancs vegrehajtasa a tablan vagy a cellait tartalmazo szeleten
+    private void execute(Board target, int c) {
+        Command cmd = roundCommands[c];
+        switch (roundTypes[c]) {
+            case ALLOCATE:
+                allocate(target, (CommandAllocate)cmd);
+                break;
+
+            case FREE:
+                free(target, (CommandFree)cmd);
+                break;
+
+            case RECOVER:
+                recover(target, (CommandRecover)cmd);
+                break;
+
+            case SWAP:
+                swap(target, (CommandSwap)cmd);
+                break;
+
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Collects the cells the valid commands of the given types work on, for
+     * {@link ShardedRound}: a cell of the block of range commands, both cells
+     * of swaps.
+     */
+    private void routeCommands(EnumSet<CommandType> types) {
+        for (int c = 0; c < roundSize; ++c) {
+            roundCells[2 * c] = -1;
+            roundCells[2 * c + 1] = -1;
+            if (!roundValid[c] || !types.contains(roundTypes[c])) {
+                continue;
+            }
+
+            CommandGeneral gen = (CommandGeneral)roundCommands[c];
+            if (roundTypes[c] == CommandType.SWAP) {
+                roundCells[2 * c] = gen.getCell(0);
+                roundCells[2 * c + 1] = gen.getCell(1);
+            } else {
+                for (int n = 0; n < gen.getCellCount(); ++n) {
+                    if (gen.hasCell(n)) {
+                        roundCells[2 * c] = gen.getCell(n);
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+
+    // Evaluation
+    private boolean isCommandValid(Command c, CommandType type) {
+        switch (type) {
+            case SCAN:
+                Integer cell = ((CommandScan)c).getCell();
+                return cell != null && cell >= 0 && cell < board.size();
+
+            case SCAN_BLOCKS:
+                CommandScanBlocks scanBlocks = (CommandScanBlocks)c;
+                Integer first = scanBlocks.getCell();
+                Integer count = scanBlocks.getBlockCount();
+                return first != null && first >= 0 && first < board.size() &&
+                       count != null && count > 0;
+
+            case SWAP:
+                CommandGeneral swapping = (CommandGeneral)c;
+
+                // need exactly 2 cells
+                if (swapping.getCellCount() != 2) {
+                    return false;
+                }
+
+                // cannot be null or out of range
+                for (int n = 0; n < 2; ++n) {
+                    if (!swapping.hasCell(n))
+                        return false;
+
+                    int i = swapping.getCell(n);
+                    if (i < 0 || i >= board.size())
+                        return false;
+                }
+
+                break;
+
+            case ALLOCATE:
+            case FREE:
+            case RECOVER:
+            case FORTIFY:
+                CommandGeneral range = (CommandGeneral)c;
+
+                // check for more than 2 ids
+                if (range.getCellCount() > 2)
+                    return false;
+
+                // check if ids are in range
+                int block = -1;
+                for (int n = 0; n < range.getCellCount(); ++n) {
+                    if (!range.hasCell(n))
+                        continue;
+
+                    int i = range.getCell(n);
+                    if (block == -1)
+                        block = i / 4;
+
+                    if (i < 0 || i >= board.size() || block != i / 4)
+                        return false;
+                }
+                break;
+
+            case UNKNOWN:
+                return false;
+        }
+
+        return true;
+    }
+
+    private void ensureRoundCapacity(int commandCount) {
+        if (roundCommands.length < commandCount) {
+            roundCommands = new Command[commandCount];
+            roundTypes = new CommandType[commandCount];
+            roundValid = new boolean[commandCount];
+            roundCells = new int[2 * commandCount];
+            roundFortified = new int[commandCount];
+        }
+    }
+
+    // a parancsok a beerkezes sorrendjeben futnak, igy a kor eredmenye
+    // ugyanarra a bemenetre mindig ugyanaz
+    private void evaluate(Command[] commands) {
+        ensureRoundCapacity(commands.length);
+        roundSize = 0;
+
+        for (Command cmd : commands) {
+            if (cmd == null || !isPlayerValid(cmd.getPlayer()))
+                continue;
+
+            CommandType type = cmd.getType();
+            roundCommands[roundSize] = cmd;
+            roundTypes[roundSize] = type;
+            roundValid[roundSize] = isCommandValid(cmd, type);
+            ++roundSize;
+        }
+
+        if (shardedRound != null) {
+            routeCommands(EXECUTED_TYPES);
+            shardedRound.execute(board, roundCells, roundSize, true, this::execute);
+            return;
+        }
+
+        for (int i = 0; i < roundSize; ++i) {
+            if (roundValid[i]) {
+                execute(board, i);
+            }
+        }
+    }
+
+
+    // Response
+    // a feltetel parancstipus szerint, lambda nelkul, hogy a kor ne foglaljon memoriat
+    private boolean isSuccessful(CommandType type, int cell, short owner) {
+        switch (type) {
+            case ALLOCATE:
+            case RECOVER:
+                return board.getState(cell, owner) == MemoryState.OWNED_ALLOCATED;
+
+            case FREE:
+                return board.getState(cell) == MemoryState.FREE;
+
+            case FORTIFY:
+                return board.fortify(cell);
+
+            default:
+                return board.successfulySwapped(cell);
+        }
+    }
+
+    // fortify egy szeleten, a sikeres cellak bitjei a parancs eredmenyebe kerulnek
+    private void fortify(Board target, int c) {
+        CommandGeneral gen = (CommandGeneral)roundCommands[c];
+        int fortified = 0;
+        for (int n = 0; n < gen.getCellCount(); ++n) {
+            if (gen.hasCell(n) && target.fortify(gen.getCell(n))) {
+                fortified |= 1 << n;
+            }
+        }
+        roundFortified[c] = fortified;
+    }
+
+    private ResponseSuccessList respondGeneral(int c) {
+        CommandGeneral gen = (CommandGeneral)roundCommands[c];
+        CommandType type = roundTypes[c];
+
+        int count = 0;
+        if (roundValid[c]) {
+            if (successCells.length < gen.getCellCount()) {
+                successCells = new int[gen.getCellCount()];
+            }
+
+            short owner = getOwnerId(gen.getPlayer());
+            boolean precomputed = type == CommandType.FORTIFY && fortifiedInShards;
+            for (int n = 0; n < gen.getCellCount(); ++n) {
+                if (gen.hasCell(n) &&
+                    (precomputed ? (roundFortified[c] & 1 << n) != 0 :
+                                   isSuccessful(type, gen.getCell(n), owner))) {
+
+                    successCells[count++] = gen.getCell(n);
+                }
+            }
+        }
+        return successList(gen.getPlayer(), count);
+    }
+
+    private ResponseSuccessList successList(Player p, int count) {
+        if (!reuseResponses) {
+            return new ResponseSuccessList(p, successCells, count);
+        }
+
+        short owner = getOwnerId(p);
+        if (successResponses.length <= owner) {
+            successResponses = Arrays.copyOf(successResponses, owners.size() + 1);
+        }
+
+        ResponseSuccessList r = successResponses[owner];
+        if (r == null) {
+            r = successResponses[owner] = new ResponseSuccessList(p, successCells, count);
+        } else {
+            r.setSuccessCells(successCells, count);
+        }
+        return r;
+    }
+
+    private ResponseScan scan(Player p, int firstCell, int count) {
+        if (!reuseResponses) {
+            return new ResponseScan(p, firstCell, scannedStates, count);
+        }
+
+        short owner = getOwnerId(p);
+        if (scanResponses.length <= owner) {
+            scanResponses = Arrays.copyOf(scanResponses, owners.size() + 1);
+        }
+
+        ResponseScan r = scanResponses[owner];
+        if (r == null) {
+            r = scanResponses[owner] = new ResponseScan(p, firstCell, scannedStates, count);
+        } else {
+            r.setStates(firstCell, scannedStates, count);
+        }
+        return r;
+    }
+
+    private ResponseStats stats(Player p) {
+        if (!reuseResponses) {
+            return new ResponseStats(p);
+        }
+
+        short owner = getOwnerId(p);
+        if (statsResponses.length <= owner) {
+            statsResponses = Arrays.copyOf(statsResponses, owners.size() + 1);
+        }
+
+        ResponseStats r = statsResponses[owner];
+        if (r == null) {
+            r = statsResponses[owner] = new ResponseStats(p);
+        }
+        return r;
+    }
+
+    private ResponseScan respondScan(Player p, Integer cell, int blockCount, boolean isValid) {
+        if (!isValid) {
+            return scan(p, -1, 0);
+        }
+
+        // a blokk elso cellaja
+        int firstCell = Board.getBlock(cell) * 4;
+
+        // a tabla vegen tul nincs tobb blokk
+        int lastCell = (int) Math.min(board.size(), firstCell + 4L * blockCount);
+
+        if (scannedStates.length < lastCell - firstCell) {
+            scannedStates = new MemoryState[lastCell - firstCell];
+        }
+
+        short owner = getOwnerId(p);
+        for (int c = firstCell; c < lastCell; ++c)
+            scannedStates[c - firstCell] = board.getState(c, owner);
+
+        return scan(p, firstCell, lastCell - firstCell);
+    }
+
+    private ResponseScan respondScan(CommandScan scan, boolean isValid) {
+        return respondScan(scan.getPlayer(), scan.getCell(), 1, isValid);
+    }
+
+    private ResponseScan respondScanBlocks(CommandScanBlocks scan, boolean isValid) {
+        return respondScan(scan.getPlayer(), scan.getCell(),
+                isValid ? scan.getBlockCount() : 0, isValid);
+    }
+
+    private ResponseStats respondStats(CommandStats stats) {
+        ResponseStats s = stats(stats.getPlayer());
+
+        short owner = getOwnerId(stats.getPlayer());
+
+        s.setAllocatedCells(board.getStateCount(MemoryState.ALLOCATED));
+        s.setCellCount(board.size());
+        s.setCorruptCells(board.getStateCount(MemoryState.CORRUPT));
+        s.setFortifiedCells(board.getStateCount(MemoryState.FORTIFIED));
+        s.setFreeCells(board.getStateCount(MemoryState.FREE));
+        s.setSystemCells(board.getStateCount(MemoryState.SYSTEM));
+        s.setOwnedCells(owner == Board.NO_OWNER ? 0 : board.getOwnedCount(owner));
+        s.setRemainingRounds(maxRounds - roundCounter);
+
+        return s;
+    }
+
+    private List<Response> respond() {
+        List<Response> results;
+        if (reuseResponses) {
+            results = roundResults;
+            results.clear();
+        } else {
+            results = new ArrayList<>(roundSize);
+        }
+
+        for (int ec = 0; ec < roundSize; ++ec) {
+            Response r = null;
+            switch (roundTypes[ec]) {
+                case STATS:
+                    r = respondStats((CommandStats)roundCommands[ec]);
+                    break;
+
+                case ALLOCATE:
+                case RECOVER:
+                case FREE:
+                case SWAP:
+                    r = respondGeneral(ec);
+                    break;
+            }
+            if (r != null) results.add(r);
+        }
+
+        // fortify a vegen
+        if (shardedRound != null) {
+            routeCommands(FORTIFY_TYPES);
+            shardedRound.execute(board, roundCells, roundSize, false, this::fortify);
+            fortifiedInShards = true;
+        }
+        for (int ec = 0; ec < roundSize; ++ec) {
+            if (roundTypes[ec] == CommandType.FORTIFY) {
+                results.add(respondGeneral(ec));
+            }
+        }
+
+        // scan minden utan
+        for (int ec = 0; ec < roundSize; ++ec) {
+            switch (roundTypes[ec]) {
+                case SCAN:
+                    results.add(respondScan((CommandScan)roundCommands[ec], roundValid[ec]));
+                    break;
+
+                case SCAN_BLOCKS:
+                    results.add(respondScanBlocks((CommandScanBlocks)roundCommands[ec], roundValid[ec]));
+                    break;
+            }
+        }
+
+        // a parancsokra nem tartunk meg hivatkozast a kor utan
+        Arrays.fill(roundCommands, 0, roundSize, null);
+        fortifiedInShards = false;
+
+        return reuseResponses ? roundResultView : results;
+    }
+
+    // Main loop
+    @Override
+    public List<Response> nextRound(Command... requests) {
+        if (roundCounter < maxRounds) {
+            ++roundCounter;
+        } else {
+            System.out.println("Game over.");
+            return null;
+        }
+
+        // set start of round conditions
+        board.resetWrites();
+
+        // uj epoch: senki nem kuldott meg parancsot
+        if (++epoch == 0) {
+            Arrays.fill(actedEpochs, 0);
+            epoch = 1;
+        }
+
+        // evaluate commands and respond
+        evaluate(requests);
+
+        return respond();
+    }
+
+
+    // Scores
+    private PlayerScore calculateScore(short owner) {
+        PlayerScore score = new PlayerScore(owners.get(owner - 1));
+
+        int fortified = board.getOwnedCount(owner, MemoryState.FORTIFIED);
+        int ownedCells = board.getOwnedCount(owner, MemoryState.ALLOCATED) + fortified;
+        int ownedBlocks = board.getOwnedBlocks(owner);
+
+        score.setFortifiedCells(fortified);
+        score.setOwnedCells(ownedCells);
+        score.setOwnedBlocks(ownedBlocks);
+        score.setTotalScore(ownedCells + 4 * ownedBlocks);
+        return score;
+    }
+
+    @Override
+    public List<PlayerScore> getScores() {
+        List<PlayerScore> scores = new ArrayList<>(owners.size());
+        for (short owner = 1; owner <= owners.size(); ++owner) {
+            scores.add(calculateScore(owner));
+        }
+        return scores;
+    }
+
+
+    // Visualization
+    // kicsit atlathatobba tettem a jatekteret
+    @Override
+    public String visualize() {
+        return renderer.render(board, owners, roundCounter, maxRounds);
+    }
+
+    /**
+     * Writes the same text as {@link #visualize()} block row by block row,
+     * the memory used does not depend on the size of the board.
+     */
+    @Override
+    public void visualize(Appendable out) throws IOException {
+        renderer.stream(board, owners, roundCounter, maxRounds, 0, (board.size() + 3) / 4, out);
+    }
+
+    /**
+     * Writes the header and the rows of the given blocks, like
+     * {@link #visualize(Appendable)}. Blocks beyond the end of the board are
+     * left out.
+     * @param firstBlock index of the first block row.
+     * @param blockCount number of block rows.
+     */
+    public void visualize(Appendable out, int firstBlock, int blockCount) throws IOException {
+        if (firstBlock < 0 || blockCount < 0) {
+            throw new IllegalArgumentException("Invalid block range: " + firstBlock + ", " + blockCount);
+        }
+
+        int blocks = (board.size() + 3) / 4;
+        int first = Math.min(firstBlock, blocks);
+        int last = (int) Math.min((long) firstBlock + blockCount, blocks);
+        renderer.stream(board, owners, roundCounter, maxRounds, first, last, out);
+    }
+
+    /**
+     * Writes the header of {@link #visualize()} and only the lines of the
+     * blocks changed since the previous visualization, or every line when
+     * the board has not been visualized yet.
+     */
+    public void visualizeChanges(Appendable out) throws IOException {
+        renderer.renderChanges(board, owners, roundCounter, maxRounds, out);
+    }
+}
@@ -0,0 +1,127 @@
+package com.loxon.javachallenge.memory;
+
+import com.loxon.javachallenge.memory.api.Game;
+import com.loxon.javachallenge.memory.api.MemoryState;
+import com.loxon.javachallenge.memory.api.Player;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandAllocate;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandFree;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandScan;
+import com.loxon.javachallenge.memory.api.communication.commands.ResponseSuccessList;
+import com.loxon.javachallenge.memory.api.communication.general.Response;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Features of {@link GameImplementation} outside of the {@link Game}
+ * interface, the rules are tested by {@link MemoryRules}.
+ */
+public class GameImplementationTest {
+
+    private final static MemoryState F  = MemoryState.FREE;
+    private final static MemoryState S  = MemoryState.SYSTEM;
+    private final static MemoryState AM = MemoryState.OWNED_ALLOCATED;
+
+    private GameImplementation game = null;
+    private Player             pA   = null;
+    private Player             pB   = null;
+
+    @Before
+    public void beforeEachTest() {
+        game = new GameImplementation();
+        pA = game.registerPlayer("a");
+        pB = game.registerPlayer("b");
+        game.startGame(Arrays.asList(
+            F, F, F, F, F, S, S, S,
+            F, F, F, F, F, F, F, F,
+            F, F, F, F, F, F, F, F), 10);
+    }
+
+    @Test
+    public void testFork() {
+        game.nextRound(
+            new CommandAllocate(pA, 0, 1));
+        final GameImplementation fork = game.fork();
+
+        //Writes on each side stay on that side
+        game.nextRound(
+            new CommandAllocate(pA, 2, 3));
+        fork.nextRound(
+            new CommandAllocate(pB, 2, 3),
+            new CommandFree(pA, 0, 1));
+        TestGames.assertResponse(game.nextRound(
+                new CommandScan(pA, 0)),
+            TestGames.cells(pA, 0, AM, AM, AM, AM));
+        TestGames.assertResponse(fork.nextRound(
+                new CommandScan(pB, 0)),
+            TestGames.cells(pB, 0, F, F, AM, AM));
+        Assert.assertEquals(8, game.getScores().get(0).getTotalScore());
+        Assert.assertEquals(0, fork.getScores().get(0).getTotalScore());
+        Assert.assertEquals(2, fork.getScores().get(1).getTotalScore());
+    }
+
+    @Test
+    public void testForkOnPages() {
+        final int size = 3 * 4096;
+        final List<MemoryState> memory = TestGames.randomMemory(new Random(9), size);
+        final TestGames.RoundSource rounds = TestGames.randomRounds(size, size);
+        final GameImplementation parent = new GameImplementation();
+        final Player[] players = TestGames.startGame(parent, memory, 40, 20);
+
+        //Reference games replay the whole history of each side without forking
+        final Game parentExpected = GameImplementationFactory.get();
+        final Game forkExpected = GameImplementationFactory.get();
+        final Player[] parentExpectedPlayers = TestGames.startGame(parentExpected, memory, 40, 20);
+        final Player[] forkExpectedPlayers = TestGames.startGame(forkExpected, memory, 40, 20);
+
+        for ( int round = 0; round < 5; ++round ) {
+            TestGames.assertSameRound(parentExpected, parentExpectedPlayers, parent, players, round, rounds);
+            TestGames.playRound(forkExpected, forkExpectedPlayers, round, rounds);
+        }
+
+        final GameImplementation fork = parent.fork();
+        for ( int round = 5; round < 15; ++round ) {
+            TestGames.assertSameRound(parentExpected, parentExpectedPlayers, parent, players, round, rounds);
+            TestGames.assertSameRound(forkExpected, forkExpectedPlayers, fork, players, -round, rounds);
+        }
+        TestGames.assertSameState(parentExpected, parent);
+        TestGames.assertSameState(forkExpected, fork);
+    }
+
+    @Test
+    public void testReusedResponses() {
+        game.setReuseResponses(true);
+
+        final List<Response> first = game.nextRound(
+            new CommandAllocate(pA, 0, 1),
+            new CommandScan(pB, 4));
+        TestGames.assertResponse(first,
+            TestGames.list(pA, 0, 1),
+            TestGames.cells(pB, 4, F, S, S, S));
+        final Response allocated = first.get(0);
+        final List<Integer> allocatedCells = ((ResponseSuccessList) allocated).getSuccessCells();
+
+        //Same objects with the result of the next round
+        final List<Response> second = game.nextRound(
+            new CommandAllocate(pA, 2, 3),
+            new CommandScan(pB, 8));
+        TestGames.assertResponse(second,
+            TestGames.list(pA, 2, 3),
+            TestGames.cells(pB, 8, F, F, F, F));
+        Assert.assertSame(first, second);
+        Assert.assertSame(allocated, second.get(0));
+        Assert.assertEquals(Arrays.asList(2, 3), allocatedCells);
+
+        //The list of a response created from a list is replaced, not changed
+        final List<Integer> given = Arrays.asList(4, 5);
+        final ResponseSuccessList fromList = new ResponseSuccessList(pA, given);
+        fromList.setSuccessCells(new int[] { 6 }, 1);
+        Assert.assertEquals(Arrays.asList(4, 5), given);
+        Assert.assertEquals(Collections.singletonList(6), fromList.getSuccessCells());
+    }
+}
@@ -0,0 +1,153 @@
+package com.loxon.javachallenge.memory;
+
+import com.loxon.javachallenge.memory.api.Player;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Binary snapshot of a running game, written and read through memory mapped files.
+ *
+ * Layout (big endian): magic, version, completed rounds, max rounds, player
+ * count, player names in registration order (length + UTF-8 bytes, -1 for null),
+ * cell count, one state byte per cell, one owner short per cell.
+ *
+ * Restoring does not create per-cell objects, the board arrays are filled in
+ * bulk and the counters are rebuilt in one pass. The players of a restored game
+ * are new instances with the same names and indexes, see
+ * {@link GameImplementation#getPlayers()}.
+ */
+public class GameSnapshot {
+    private static final int MAGIC = 0x4D454D53;
+    private static final int VERSION = 1;
+
+    private static final int NULL_NAME = -1;
+
+    private GameSnapshot() {
+    }
+
+    /**
+     * Writes the snapshot of a started game, replacing the file if it exists.
+     */
+    public static void save(final GameImplementation game, final Path path) throws IOException {
+        Board board = game.getBoard();
+        if (board == null) {
+            throw new IllegalStateException("Game is not started.");
+        }
+
+        List<Player> players = game.getPlayers();
+        List<byte[]> names = new ArrayList<>(players.size());
+        long length = 5 * Integer.BYTES + Integer.BYTES + 3L * board.size();
+        for (Player p : players) {
+            byte[] name = p.getName() == null ? null : p.getName().getBytes(StandardCharsets.UTF_8);
+            names.add(name);
+            length += Integer.BYTES + (name == null ? 0 : name.length);
+        }
+
+        if (length > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Game is too large for a snapshot.");
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, length);
+            buffer.putInt(MAGIC);
+            buffer.putInt(VERSION);
+            buffer.putInt(game.getRoundCounter());
+            buffer.putInt(game.getMaxRounds());
+
+            buffer.putInt(names.size());
+            for (byte[] name : names) {
+                if (name == null) {
+                    buffer.putInt(NULL_NAME);
+                } else {
+                    buffer.putInt(name.length);
+                    buffer.put(name);
+                }
+            }
+
+            buffer.putInt(board.size());
+            board.writeCells(buffer);
+            buffer.force();
+        }
+    }
+
+    /**
+     * Creates a new game from a snapshot file.
+     * @throws IOException if the file cannot be read or is not a valid snapshot.
+     */
+    public static GameImplementation load(final Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot is too large: " + path);
+            }
+
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            try {
+                return read(buffer, path);
+            } catch (RuntimeException e) {
+                throw new IOException("Invalid snapshot: " + path, e);
+            }
+        }
+    }
+
+    private static GameImplementation read(final ByteBuffer buffer, final Path path) throws IOException {
+        if (buffer.getInt() != MAGIC) {
+            throw new IllegalArgumentException("Not a game snapshot.");
+        }
+        int version = buffer.getInt();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported snapshot version: " + version);
+        }
+
+        int roundCounter = buffer.getInt();
+        int maxRounds = buffer.getInt();
+
+        GameImplementation game = new GameImplementation();
+        int playerCount = buffer.getInt();
+        // minden jatekosnak legalabb a nev hossza ott van
+        if (playerCount < 0 || playerCount > buffer.remaining() / Integer.BYTES) {
+            throw new IOException("Invalid player count " + playerCount + " in snapshot: " + path);
+        }
+        for (int i = 0; i < playerCount; ++i) {
+            int length = buffer.getInt();
+            String name = null;
+            if (length != NULL_NAME) {
+                // a hosszt nem hisszuk el, amig a fajlban nincs ott annyi bajt
+                if (length < 0 || length > buffer.remaining()) {
+                    throw new IOException("Invalid name length " + length + " of player " + i + " in snapshot: " + path);
+                }
+                byte[] bytes = new byte[length];
+                buffer.get(bytes);
+                name = new String(bytes, StandardCharsets.UTF_8);
+            }
+            game.registerPlayer(name);
+        }
+
+        int cellCount = buffer.getInt();
+        if (cellCount < 0 || cellCount > buffer.remaining() / 3) {
+            throw new IOException("Invalid cell count " + cellCount + " in snapshot: " + path);
+        }
+        Board board = Board.readCells(buffer, cellCount);
+        for (int i = 0; i < cellCount; ++i) {
+            if (board.getOwner(i) > playerCount) {
+                throw new IllegalArgumentException("Unknown owner at cell " + i + ".");
+            }
+        }
+
+        if (maxRounds <= 0 || roundCounter < 0 || roundCounter > maxRounds) {
+            throw new IllegalArgumentException("Invalid round counters.");
+        }
+
+        game.restoreGame(board, roundCounter, maxRounds);
+        return game;
+    }
+}
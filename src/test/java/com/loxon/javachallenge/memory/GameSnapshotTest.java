@@ -0,0 +1,89 @@
+package com.loxon.javachallenge.memory;
+
+import com.loxon.javachallenge.memory.api.MemoryState;
+import com.loxon.javachallenge.memory.api.Player;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+public class GameSnapshotTest {
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        final Path path = temp.newFile().toPath();
+        final List<MemoryState> memory = TestGames.randomMemory(new Random(5), 4096 + 64);
+        final TestGames.RoundSource rounds = TestGames.randomRounds(memory.size(), memory.size());
+
+        final GameImplementation played = new GameImplementation();
+        final Player[] players = TestGames.startGame(played, memory, 20, 40);
+        for ( int round = 0; round < 20; ++round ) {
+            TestGames.playRound(played, players, round, rounds);
+        }
+        GameSnapshot.save(played, path);
+
+        final GameImplementation loaded = GameSnapshot.load(path);
+        TestGames.assertSameState(played, loaded);
+
+        //The restored players keep playing where the saved ones stopped
+        final Player[] restored = loaded.getPlayers().toArray(new Player[0]);
+        Assert.assertEquals(players.length, restored.length);
+        for ( int round = 20; round < 30; ++round ) {
+            TestGames.assertSameRound(played, players, loaded, restored, round, rounds);
+        }
+        TestGames.assertSameState(played, loaded);
+    }
+
+    @Test
+    public void testCorruptSnapshot() throws IOException {
+        final Path path = temp.newFile().toPath();
+        final GameImplementation played = new GameImplementation();
+        TestGames.startGame(played, Collections.nCopies(16, MemoryState.FREE), 2, 10);
+        GameSnapshot.save(played, path);
+
+        //Header of four ints, the player count, then the length of the first name
+        assertInvalid(path, 20, Integer.MAX_VALUE, "name length");
+        assertInvalid(path, 20, -5, "name length");
+        assertInvalid(path, 16, Integer.MAX_VALUE, "player count");
+
+        //The cell count follows the two names of two bytes each
+        GameSnapshot.save(played, path);
+        assertInvalid(path, 20 + 2 * (4 + 2), Integer.MAX_VALUE, "cell count");
+
+        //A truncated file is reported the same way
+        GameSnapshot.save(played, path);
+        try ( final FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE) ) {
+            channel.truncate(channel.size() - 1);
+        }
+        try {
+            GameSnapshot.load(path);
+            Assert.fail("Truncated snapshot was loaded.");
+        } catch ( IOException e ) {
+            Assert.assertTrue(e.getMessage(), e.getMessage().contains(path.toString()));
+        }
+    }
+
+    private static void assertInvalid( final Path path, final int position, final int value, final String message ) throws IOException {
+        try ( final FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE) ) {
+            channel.write((ByteBuffer) ByteBuffer.allocate(4).putInt(value).flip(), position);
+        }
+        try {
+            GameSnapshot.load(path);
+            Assert.fail("Corrupt snapshot was loaded.");
+        } catch ( IOException e ) {
+            Assert.assertTrue(e.getMessage(), e.getMessage().contains(message));
+            Assert.assertTrue(e.getMessage(), e.getMessage().contains(path.toString()));
+        }
+    }
+}
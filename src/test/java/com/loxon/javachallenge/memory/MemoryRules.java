@@ -9,21 +9,42 @@ import com.loxon.javachallenge.memory.api.communication.commands.CommandFortify;
 import com.loxon.javachallenge.memory.api.communication.commands.CommandFree;
 import com.loxon.javachallenge.memory.api.communication.commands.CommandRecover;
 import com.loxon.javachallenge.memory.api.communication.commands.CommandScan;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandScanBlocks;
 import com.loxon.javachallenge.memory.api.communication.commands.CommandStats;
 import com.loxon.javachallenge.memory.api.communication.commands.CommandSwap;
 import com.loxon.javachallenge.memory.api.communication.commands.ResponseScan;
 import com.loxon.javachallenge.memory.api.communication.commands.ResponseStats;
 import com.loxon.javachallenge.memory.api.communication.commands.ResponseSuccessList;
 import com.loxon.javachallenge.memory.api.communication.general.Command;
+import com.loxon.javachallenge.memory.api.communication.general.CommandGeneral;
+import com.loxon.javachallenge.memory.api.communication.general.CommandType;
 import com.loxon.javachallenge.memory.api.communication.general.Response;
+import com.loxon.javachallenge.memory.codec.CommandView;
+import com.loxon.javachallenge.memory.codec.MessageCodec;
+import com.loxon.javachallenge.memory.codec.ResponseView;
+import com.loxon.javachallenge.memory.host.GameHost;
+import com.loxon.javachallenge.memory.host.HostedGame;
 import org.junit.*;
 import org.junit.rules.TestName;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 public class MemoryRules {
@@ -37,6 +58,7 @@ public class MemoryRules {
     private final static MemoryState FM = MemoryState.OWNED_FORTIFIED;
 
     private final static int      GAME_ROUNDS = 10;
+    private final static Pattern  CELL_INDEX  = Pattern.compile("@ (\\d+)");
     @Rule
     public               TestName name        = new TestName();
     private              Game     game        = null;
@@ -137,6 +159,22 @@ public class MemoryRules {
             new ResponseScan(pA, -1, Collections.emptyList()));
     }
 
+    @Test
+    public void testScanBlocks() {
+        assertResponse( // multiple blocks, index is inside the first block
+            game.nextRound(
+                new CommandScanBlocks(pA, 2, 2)),
+            new ResponseScan(pA, 0, Arrays.asList(F, F, F, F, F, S, S, S)));
+        assertResponse( // blocks after the end of memory are left out
+            game.nextRound(
+                new CommandScanBlocks(pA, 17, 10)),
+            new ResponseScan(pA, 16, Arrays.asList(F, F, F, F, F, F, F, F)));
+        assertResponse( // invalid block count
+            game.nextRound(
+                new CommandScanBlocks(pA, 0, 0)),
+            new ResponseScan(pA, -1, Collections.emptyList()));
+    }
+
     @Test
     public void testAllocate() {
 
@@ -420,6 +458,86 @@ public class MemoryRules {
             cells(pB, 12, AX, C, F, C));
     }
 
+    @Test
+    public void testSwapHistoryPerRound() {
+        game.nextRound( // a failed swap corrupts every cell swapped with its cells in the round
+            swap(pA, 0, 8),
+            swap(pB, 8, 16));
+
+        game.nextRound( // a successful swap, its history ends with the round
+            swap(pA, 2, 12));
+
+        game.nextRound( // only the cells of this round are corrupted, cell 2 is not
+            allocate(pA, 12, 13),
+            swap(pB, 12, 20));
+
+        assertResponse(
+            game.nextRound(
+                new CommandScanBlocks(pA, 0, 6)),
+            new ResponseScan(pA, 0, Arrays.asList(
+                C, F, F, F,
+                F, S, S, S,
+                C, F, F, F,
+                C, AM, F, F,
+                C, F, F, F,
+                C, F, F, F)));
+    }
+
+    @Test
+    public void testConcurrentGamesIndependent() throws Exception {
+        final List<MemoryState> memory = TestGames.randomMemory(new Random(11), 512);
+        final TestGames.RoundSource swapRounds = swapRounds(memory.size());
+        final int games = 4;
+        final int rounds = 40;
+
+        //Games playing swap-heavy rounds at the same time end up like games played one by one
+        final List<Game> parallel = new ArrayList<>();
+        final List<Player[]> parallelPlayers = new ArrayList<>();
+        for ( int g = 0; g < games; ++g ) {
+            final Game created = createGame();
+            parallelPlayers.add(TestGames.startGame(created, memory, 40, rounds));
+            parallel.add(created);
+        }
+
+        try ( final GameHost host = new GameHost(games) ) {
+            final List<HostedGame> hosted = new ArrayList<>();
+            for ( final Game g : parallel ) {
+                hosted.add(host.host(g));
+            }
+            final List<CompletableFuture<List<Response>>> pending = new ArrayList<>();
+            for ( int round = 0; round < rounds; ++round ) {
+                for ( int g = 0; g < games; ++g ) {
+                    pending.add(host.nextRound(hosted.get(g),
+                        swapRounds.create(new Random(31L * round + g), parallelPlayers.get(g))));
+                }
+            }
+            for ( final CompletableFuture<List<Response>> responses : pending ) {
+                responses.get(30, TimeUnit.SECONDS);
+            }
+        }
+
+        for ( int g = 0; g < games; ++g ) {
+            final Game serial = createGame();
+            final Player[] players = TestGames.startGame(serial, memory, 40, rounds);
+            for ( int round = 0; round < rounds; ++round ) {
+                TestGames.playRound(serial, players, 31L * round + g, swapRounds);
+            }
+            TestGames.assertSameState(serial, parallel.get(g));
+        }
+    }
+
+    private static TestGames.RoundSource swapRounds( final int size ) {
+        return ( random, players ) -> {
+            final Command[] commands = new Command[players.length];
+            for ( int i = 0; i < players.length; ++i ) {
+                commands[i] = random.nextBoolean() ?
+                    new CommandSwap(players[i], random.nextInt(size), random.nextInt(size)) :
+                    TestGames.randomCommand(random, players[i], size, size);
+            }
+            return commands;
+        };
+    }
+
     @Test
     public void testSwapInvalid() {
 
@@ -507,6 +625,233 @@ public class MemoryRules {
         Assert.assertEquals(2, pBScore.getTotalScore());
     }
 
+    @Test
+    public void testSubmissionOrder() {
+        //Commands writing the same cell run in the order they were submitted
+        game.nextRound(
+            allocate(pA, 0, 1),
+            swap(pB, 1, 4));
+        final Game reversed = createGame();
+        final Player[] players = TestGames.registerPlayers(reversed, 2);
+        reversed.startGame(Arrays.asList(
+            F, F, F, F, F, S, S, S,
+            F, F, F, F, F, F, F, F,
+            F, F, F, F, F, F, F, F), GAME_ROUNDS);
+        reversed.nextRound(
+            swap(players[1], 1, 4),
+            allocate(players[0], 0, 1));
+
+        assertResponse(
+            game.nextRound(
+                new CommandScanBlocks(pA, 0, 2)),
+            new ResponseScan(pA, 0, Arrays.asList(AM, C, F, F, C, S, S, S)));
+        assertResponse(
+            reversed.nextRound(
+                new CommandScanBlocks(players[0], 0, 2)),
+            new ResponseScan(players[0], 0, Arrays.asList(AM, C, F, F, F, S, S, S)));
+
+        //Responses follow the submission order, fortify and scan responses come last
+        final Game ordered = createGame();
+        final Player[] four = TestGames.registerPlayers(ordered, 4);
+        ordered.startGame(Collections.nCopies(16, F), GAME_ROUNDS);
+        final List<Response> responses = ordered.nextRound(
+            scan(four[0], 8),
+            new CommandStats(four[3]),
+            fortify(four[1], 4, null),
+            allocate(four[2], 12, 13),
+            new CommandStats(four[1]));
+        Assert.assertEquals(4, responses.size());
+        Assert.assertSame(four[3], responses.get(0).getPlayer());
+        Assert.assertEquals(list(four[2], 12, 13), responses.get(1));
+        Assert.assertSame(four[2], responses.get(1).getPlayer());
+        Assert.assertSame(four[1], responses.get(2).getPlayer());
+        Assert.assertEquals(cells(four[0], 8, F, F, F, F), responses.get(3));
+        Assert.assertSame(four[0], responses.get(3).getPlayer());
+    }
+
+    @Test
+    public void testPrimitiveCells() {
+        //Primitive cells are copied and read like the list of cells
+        final int[] source = { 4, 5, 6 };
+        final CommandFree primitive = new CommandFree(pA, source, 2);
+        source[0] = 99;
+        Assert.assertEquals(2, primitive.getCellCount());
+        Assert.assertTrue(primitive.hasCell(1));
+        Assert.assertFalse(primitive.hasCell(2));
+        Assert.assertEquals(4, primitive.getCell(0));
+        Assert.assertEquals(Arrays.asList(4, 5), primitive.getCells());
+
+        final CommandGeneral boxed = new CommandFree(pA, Arrays.asList(4, null));
+        Assert.assertEquals(2, boxed.getCellCount());
+        Assert.assertTrue(boxed.hasCell(0));
+        Assert.assertFalse(boxed.hasCell(1));
+        Assert.assertEquals(-1, new CommandFree(pA, (List<Integer>) null).getCellCount());
+
+        final ResponseSuccessList success = new ResponseSuccessList(pA, new int[] { 8, 9, 10 }, 2);
+        Assert.assertEquals(list(pA, 8, 9), success);
+        Assert.assertEquals(list(pA, 8, 9).hashCode(), success.hashCode());
+        Assert.assertEquals(2, success.getSuccessCount());
+        Assert.assertEquals(9, success.getSuccessCell(1));
+        try {
+            success.getSuccessCell(2);
+            Assert.fail("Only the given count of cells is readable.");
+        } catch ( IndexOutOfBoundsException e ) {
+            //expected
+        }
+
+        //A reused response updates the views handed out before
+        final List<Integer> cellsView = success.getSuccessCells();
+        success.setSuccessCells(new int[] { 1 }, 1);
+        Assert.assertEquals(Collections.singletonList(1), cellsView);
+        success.setSuccessCells(new int[] { 1, 2, 3, 4, 5 }, 5);
+        Assert.assertEquals(Arrays.asList(1, 2, 3, 4, 5), cellsView);
+
+        final ResponseScan scan = new ResponseScan(pA, 4, new MemoryState[] { F, S, S, S, C }, 4);
+        Assert.assertEquals(cells(pA, 4, F, S, S, S), scan);
+        Assert.assertEquals(4, scan.getStateCount());
+        Assert.assertEquals(S, scan.getState(3));
+        final List<MemoryState> statesView = scan.getStates();
+        scan.setStates(0, MemoryState.values(), MemoryState.values().length);
+        Assert.assertEquals(Arrays.asList(MemoryState.values()), statesView);
+        Assert.assertEquals(0, scan.getFirstCell());
+
+        //The game answers primitive commands like the list based ones
+        assertResponse(
+            game.nextRound(
+                new CommandAllocate(pA, 0, 1),
+                new CommandAllocate(pB, new int[] { 8 }, 1)),
+            list(pA, 0, 1),
+            list(pB, 8, null));
+        final ResponseSuccessList freed = (ResponseSuccessList) game.nextRound(new CommandFree(pA, 1)).get(0);
+        Assert.assertEquals(1, freed.getSuccessCount());
+        Assert.assertEquals(1, freed.getSuccessCell(0));
+    }
+
+    @Test
+    public void testCommandTypes() {
+        Assert.assertEquals(CommandType.ALLOCATE, allocate(pA, 0, 1).getType());
+        Assert.assertEquals(CommandType.ALLOCATE, new CommandAllocate(pA, new int[] { 0 }, 1).getType());
+        Assert.assertEquals(CommandType.FREE, new CommandFree(pA, 0, 1).getType());
+        Assert.assertEquals(CommandType.RECOVER, recover(pA, 0, 1).getType());
+        Assert.assertEquals(CommandType.FORTIFY, new CommandFortify(pA, 0).getType());
+        Assert.assertEquals(CommandType.SWAP, new CommandSwap(pA, 0, 1).getType());
+        Assert.assertEquals(CommandType.SCAN, scan(pA, 0).getType());
+        Assert.assertEquals(CommandType.SCAN_BLOCKS, new CommandScanBlocks(pA, 0, 1).getType());
+        Assert.assertEquals(CommandType.STATS, new CommandStats(pA).getType());
+
+        //A subclass of a game command keeps its type
+        assertResponse(
+            game.nextRound(
+                new CommandAllocate(pA, 0, 1) {
+                }),
+            list(pA, 0, 1));
+
+        //Commands of other types are not executed, but use up the command of the player
+        final Command foreign = new CommandGeneral(pB, Arrays.asList(8, 9)) {
+        };
+        Assert.assertEquals(CommandType.UNKNOWN, foreign.getType());
+        Assert.assertEquals(0, game.nextRound(foreign, allocate(pB, 8, 9)).size());
+        assertResponse(
+            game.nextRound(
+                scan(pB, 8)),
+            cells(pB, 8, F, F, F, F));
+    }
+
+    @Test
+    public void testManyOwners() {
+        //More owners than a byte can index, each one owning a block of its own
+        final Game crowded = createGame();
+        final Player[] players = TestGames.registerPlayers(crowded, 300);
+        crowded.startGame(Collections.nCopies(4 * players.length, F), GAME_ROUNDS);
+
+        for ( int half = 0; half < 2; ++half ) {
+            final Command[] commands = new Command[players.length];
+            for ( int i = 0; i < players.length; ++i ) {
+                commands[i] = allocate(players[i], 4 * i + 2 * half, 4 * i + 2 * half + 1);
+            }
+            Assert.assertEquals(players.length, crowded.nextRound(commands).size());
+        }
+
+        assertResponse(
+            crowded.nextRound(
+                new CommandScanBlocks(players[299], 4 * 298, 2),
+                new CommandScanBlocks(players[256], 4 * 255, 2)),
+            new ResponseScan(players[299], 4 * 298, Arrays.asList(AX, AX, AX, AX, AM, AM, AM, AM)),
+            new ResponseScan(players[256], 4 * 255, Arrays.asList(AX, AX, AX, AX, AM, AM, AM, AM)));
+
+        for ( final PlayerScore score : crowded.getScores() ) {
+            Assert.assertEquals(4, score.getOwnedCells());
+            Assert.assertEquals(1, score.getOwnedBlocks());
+            Assert.assertEquals(8, score.getTotalScore());
+        }
+    }
+
+    @Test
+    public void testStatsCounters() {
+        final List<MemoryState> memory = TestGames.randomMemory(new Random(9), 4096 + 32);
+        final GameImplementation played = new GameImplementation();
+        final Player[] players = TestGames.startGame(played, memory, 12, 100);
+
+        final TestGames.RoundSource rounds = TestGames.mixedRounds(memory.size());
+        final Random random = new Random(10);
+        for ( int round = 0; round < 30; ++round ) {
+            played.nextRound(rounds.create(random, players));
+
+            //The counters kept by the board agree with counting every cell, owned cells in any state
+            final int checked = round % players.length;
+            final ResponseStats stats = (ResponseStats) played.nextRound(new CommandStats(players[checked])).get(0);
+
+            final Board board = played.getBoard();
+            final int[] counts = new int[MemoryState.values().length];
+            int owned = 0;
+            for ( int i = 0; i < board.size(); ++i ) {
+                ++counts[board.getState(i).ordinal()];
+                if ( board.getOwner(i) == checked + 1 ) {
+                    ++owned;
+                }
+            }
+            Assert.assertEquals(memory.size(), stats.getCellCount());
+            Assert.assertEquals(counts[F.ordinal()], stats.getFreeCells());
+            Assert.assertEquals(counts[S.ordinal()], stats.getSystemCells());
+            Assert.assertEquals(counts[C.ordinal()], stats.getCorruptCells());
+            Assert.assertEquals(counts[AX.ordinal()], stats.getAllocatedCells());
+            Assert.assertEquals(counts[FX.ordinal()], stats.getFortifiedCells());
+            Assert.assertEquals(owned, stats.getOwnedCells());
+        }
+    }
+
+    @Test
+    public void testOwnedBlocks() {
+
+        game.nextRound( // a single owned cell in the first block
+            allocate(pA, 0, null),
+            allocate(pB, 12, 13));
+
+        game.nextRound(
+            allocate(pA, 8, 9),
+            allocate(pB, 14, 15));
+
+        game.nextRound( // blocks after a partially owned one
+            allocate(pA, 10, 11));
+
+        game.nextRound( // and after a block of the other player
+            allocate(pA, 16, 17));
+
+        game.nextRound(
+            allocate(pA, 18, 19));
+
+        final Map<Player, PlayerScore> scores = game.getScores().stream()
+            .collect(Collectors.toMap(PlayerScore::getPlayer, Function.identity()));
+
+        Assert.assertEquals(9, scores.get(pA).getOwnedCells());
+        Assert.assertEquals(2, scores.get(pA).getOwnedBlocks());
+        Assert.assertEquals(17, scores.get(pA).getTotalScore());
+
+        Assert.assertEquals(4, scores.get(pB).getOwnedCells());
+        Assert.assertEquals(1, scores.get(pB).getOwnedBlocks());
+        Assert.assertEquals(8, scores.get(pB).getTotalScore());
+    }
+
     @Test
     public void testHack() {
 
@@ -529,6 +874,294 @@ public class MemoryRules {
             cells(pB, 16, F, F, F, F));
     }
 
+    @Test
+    public void testRoundEpochWrapAround() {
+        final GameImplementation implementation = (GameImplementation) game;
+
+        //Both players act in epoch 1
+        assertResponse(
+            game.nextRound(
+                allocate(pA, 0, 1),
+                allocate(pB, 8, 9)),
+            list(pA, 0, 1),
+            list(pB, 8, 9));
+
+        //The next epoch would be 0, it starts again from 1 with the old marks cleared
+        implementation.setEpoch(-1);
+        final List<Response> restarted = game.nextRound(
+            allocate(pA, 2, 3),
+            allocate(pA, 12, 13),
+            allocate(pB, 10, 11));
+        Assert.assertEquals(2, restarted.size());
+        assertResponse(restarted,
+            list(pA, 2, 3),
+            list(pB, 10, 11));
+
+        //Only the first command of a player is accepted across the largest epoch
+        implementation.setEpoch(Integer.MAX_VALUE - 1);
+        for ( int round = 0; round < 3; ++round ) {
+            final List<Response> responses = game.nextRound(
+                scan(pA, 0),
+                scan(pB, 8),
+                scan(pA, 8));
+            Assert.assertEquals(2, responses.size());
+            assertResponse(responses,
+                cells(pA, 0, AM, AM, AM, AM),
+                cells(pB, 8, AM, AM, AM, AM));
+        }
+    }
+
+    @Test
+    public void testMessageCodecRoundTrip() {
+        final int max = Integer.MAX_VALUE;
+        final List<Command> commands = Arrays.asList(
+            new CommandAllocate(pA, max - 1, max),
+            new CommandFree(pA, 0),
+            new CommandRecover(pA, Arrays.asList(max, null)),
+            new CommandFortify(pA, Collections.emptyList()),
+            new CommandSwap(pA, (List<Integer>) null),
+            new CommandSwap(pA, Arrays.asList(null, null, 0, max, null, null, null, null, null, max)),
+            new CommandScan(pA, max),
+            new CommandScan(pA, null),
+            new CommandScanBlocks(pA, max, null),
+            new CommandStats(pA),
+            new Command(pA) {
+            });
+
+        final ByteBuffer buffer = ByteBuffer.allocate(1024);
+        for ( final Command c : commands ) {
+            final int start = buffer.position();
+            MessageCodec.putCommand(buffer, c);
+            Assert.assertEquals(MessageCodec.commandSize(c), buffer.position() - start);
+        }
+        buffer.flip();
+
+        //The view reads the message in place, the codec creates the same command
+        final CommandView view = new CommandView();
+        for ( final Command c : commands ) {
+            view.wrap(buffer, buffer.position(), buffer.remaining());
+            Assert.assertEquals(c.getType(), view.getType());
+            if ( c instanceof CommandGeneral ) {
+                final CommandGeneral general = (CommandGeneral) c;
+                Assert.assertEquals(general.getCellCount(), view.getCellCount());
+                for ( int i = 0; i < general.getCellCount(); ++i ) {
+                    Assert.assertEquals(general.hasCell(i), view.hasCell(i));
+                    Assert.assertEquals(general.hasCell(i) ? general.getCell(i) : 0, view.getCell(i));
+                }
+            }
+            assertSameCommand(c, MessageCodec.getCommand(buffer, pA));
+        }
+        Assert.assertFalse(buffer.hasRemaining());
+
+        final ResponseStats stats = new ResponseStats(pA);
+        stats.setCellCount(max);
+        stats.setOwnedCells(1);
+        stats.setFreeCells(2);
+        stats.setAllocatedCells(3);
+        stats.setCorruptCells(4);
+        stats.setFortifiedCells(5);
+        stats.setSystemCells(6);
+        stats.setRemainingRounds(max - 1);
+        final List<Response> responses = Arrays.asList(
+            new ResponseSuccessList(pA, Collections.emptyList()),
+            new ResponseSuccessList(pA, new int[] { max, 0, max - 1 }, 3),
+            new ResponseScan(pA, -1, Collections.emptyList()),
+            new ResponseScan(pA, max - 4, MemoryState.values(), MemoryState.values().length),
+            stats,
+            null);
+
+        buffer.clear();
+        for ( final Response r : responses ) {
+            final int start = buffer.position();
+            MessageCodec.putResponse(buffer, r);
+            Assert.assertEquals(MessageCodec.responseSize(r), buffer.position() - start);
+        }
+        buffer.flip();
+
+        final ResponseView responseView = new ResponseView();
+        for ( final Response r : responses ) {
+            responseView.wrap(buffer, buffer.position(), buffer.remaining());
+            if ( r instanceof ResponseSuccessList ) {
+                final ResponseSuccessList list = (ResponseSuccessList) r;
+                Assert.assertEquals(list.getSuccessCount(), responseView.getSuccessCount());
+                for ( int i = 0; i < list.getSuccessCount(); ++i ) {
+                    Assert.assertEquals(list.getSuccessCell(i), responseView.getSuccessCell(i));
+                }
+            } else if ( r instanceof ResponseScan ) {
+                Assert.assertEquals(((ResponseScan) r).getFirstCell(), responseView.getFirstCell());
+                Assert.assertEquals(((ResponseScan) r).getStateCount(), responseView.getStateCount());
+            } else if ( r == null ) {
+                Assert.assertEquals(MessageCodec.NO_RESPONSE, responseView.getKind());
+            }
+
+            final Response decoded = MessageCodec.getResponse(buffer, pA);
+            Assert.assertEquals(r, decoded);
+            if ( r != null ) {
+                Assert.assertEquals(r.getClass(), decoded.getClass());
+                Assert.assertSame(pA, decoded.getPlayer());
+            }
+        }
+        Assert.assertFalse(buffer.hasRemaining());
+    }
+
+    private static void assertSameCommand( final Command expected, final Command actual ) {
+        Assert.assertEquals(expected.getType(), actual.getType());
+        Assert.assertSame(expected.getPlayer(), actual.getPlayer());
+        if ( expected.getType() != CommandType.UNKNOWN ) {
+            Assert.assertEquals(expected.getClass(), actual.getClass());
+        }
+
+        if ( expected instanceof CommandGeneral ) {
+            Assert.assertEquals(((CommandGeneral) expected).getCells(), ((CommandGeneral) actual).getCells());
+        } else if ( expected instanceof CommandScan ) {
+            Assert.assertEquals(((CommandScan) expected).getCell(), ((CommandScan) actual).getCell());
+        } else if ( expected instanceof CommandScanBlocks ) {
+            Assert.assertEquals(((CommandScanBlocks) expected).getCell(), ((CommandScanBlocks) actual).getCell());
+            Assert.assertEquals(((CommandScanBlocks) expected).getBlockCount(), ((CommandScanBlocks) actual).getBlockCount());
+        }
+    }
+
+    @Test
+    public void testIncrementalVisualization() throws IOException {
+        final List<MemoryState> memory = TestGames.randomMemory(new Random(7), 4096 + 256);
+        final TestGames.RoundSource rounds = TestGames.mixedRounds(memory.size());
+        final GameImplementation played = new GameImplementation();
+        final Player[] players = TestGames.startGame(played, memory, 30, 40);
+
+        final Random random = new Random(8);
+        final List<Long> seeds = new ArrayList<>();
+        String[] lines = played.visualize().split("\n", -1);
+        for ( int round = 0; round < 24; ++round ) {
+            seeds.add(random.nextLong());
+            TestGames.playRound(played, players, seeds.get(round), rounds);
+
+            //A new game replaying the same rounds renders every block for the first time
+            final GameImplementation replayed = new GameImplementation();
+            final Player[] replayedPlayers = TestGames.startGame(replayed, memory, players.length, 40);
+            for ( final long seed : seeds ) {
+                TestGames.playRound(replayed, replayedPlayers, seed, rounds);
+            }
+            final String full = replayed.visualize();
+
+            final StringBuilder streamed = new StringBuilder();
+            played.visualize(streamed);
+            Assert.assertEquals(full, streamed.toString());
+
+            //Changed lines and incremental renders take turns, each picks up after the other
+            if ( round % 2 == 0 ) {
+                final StringBuilder changes = new StringBuilder();
+                played.visualizeChanges(changes);
+                applyChangedLines(lines, changes.toString());
+                Assert.assertEquals(full, String.join("\n", lines));
+            } else {
+                Assert.assertEquals(full, played.visualize());
+                lines = full.split("\n", -1);
+            }
+        }
+    }
+
+    /**
+     * Replaces the header and the block lines of a visualization split into
+     * lines with the ones written by visualizeChanges.
+     */
+    private static void applyChangedLines( final String[] lines, final String changes ) {
+        final String[] changed = changes.split("\n", -1);
+        lines[1] = changed[1];
+        for ( int i = 2; i < changed.length; ++i ) {
+            final Matcher cell = CELL_INDEX.matcher(changed[i]);
+            if ( cell.find() ) {
+                lines[2 + Integer.parseInt(cell.group(1)) / 4] = changed[i];
+            }
+        }
+    }
+
+    @Test
+    public void testGameHostYieldsBetweenBatches() throws Exception {
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try ( final GameHost host = new GameHost(executor) ) {
+            final HostedGame first = host.host(game);
+            final HostedGame second = host.host(createGame());
+            final CountDownLatch release = new CountDownLatch(1);
+            final List<String> order = Collections.synchronizedList(new ArrayList<>());
+
+            //The only worker is busy while both games queue their operations
+            host.execute(first, g -> {
+                awaitQuietly(release);
+                return null;
+            });
+            final List<CompletableFuture<String>> results = new ArrayList<>();
+            for ( int i = 0; i < 200; ++i ) {
+                results.add(host.execute(first, g -> {
+                    order.add("first");
+                    return "first";
+                }));
+            }
+            results.add(host.execute(second, g -> {
+                order.add("second");
+                return "second";
+            }));
+            release.countDown();
+            for ( final CompletableFuture<String> result : results ) {
+                result.get(10, TimeUnit.SECONDS);
+            }
+
+            //The second game did not wait for every queued operation of the first one
+            Assert.assertEquals(201, order.size());
+            Assert.assertTrue(order.indexOf("second") < 200);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testGameHostRejectedExecution() throws Exception {
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try ( final GameHost host = new GameHost(executor) ) {
+            final HostedGame hosted = host.host(game);
+            final CountDownLatch release = new CountDownLatch(1);
+
+            //The executor stops accepting tasks while the game still has work queued
+            host.execute(hosted, g -> {
+                awaitQuietly(release);
+                return null;
+            });
+            final List<CompletableFuture<List<Response>>> rounds = new ArrayList<>();
+            for ( int i = 0; i < 100; ++i ) {
+                rounds.add(host.nextRound(hosted, new CommandStats(pA)));
+            }
+            executor.shutdown();
+            release.countDown();
+
+            //Every future completes, the ones left behind with the rejection
+            int played = 0;
+            int rejected = 0;
+            for ( final CompletableFuture<List<Response>> round : rounds ) {
+                try {
+                    round.get(10, TimeUnit.SECONDS);
+                    ++played;
+                } catch ( ExecutionException e ) {
+                    Assert.assertTrue(e.getCause() instanceof RejectedExecutionException);
+                    ++rejected;
+                }
+            }
+            Assert.assertTrue(played > 0);
+            Assert.assertTrue(rejected > 0);
+            Assert.assertEquals(100, played + rejected);
+
+            //Later operations fail instead of throwing or hanging
+            final CompletableFuture<List<PlayerScore>> scores = host.getScores(hosted);
+            Assert.assertTrue(scores.isCompletedExceptionally());
+        }
+    }
+
+    private static void awaitQuietly( final CountDownLatch latch ) {
+        try {
+            latch.await();
+        } catch ( InterruptedException e ) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
     @After
     public void afterEachTest() {
         if ( game != null ) {
@@ -0,0 +1,235 @@
+package com.loxon.javachallenge.memory;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Parallel execution of the commands of a round on large boards.
+ *
+ * The board is split into shards of whole storage pages. Every command is
+ * routed to the shard of its cells, a swap between two shards joins the two
+ * into one group. So every cell, and every swap partner of a cell, belongs
+ * to exactly one group. The groups run in parallel, each executing its
+ * commands in their original order on a shard board (see
+ * {@link Board#shard(int, boolean)}), and the shards are merged into
+ * the board afterwards. The result is the same as executing the commands
+ * one after the other.
+ */
+class ShardedRound {
+    // ennel kevesebb parancsnal a szetosztas tobbe kerul, mint amit nyerunk
+    static final int MIN_PARALLEL_COMMANDS = 64;
+
+    /**
+     * Executes one command on the given board, which is the board of the game
+     * or a shard containing the cells of the command.
+     */
+    interface CommandExecutor {
+        void execute(Board target, int command);
+    }
+
+    private final ForkJoinPool pool;
+    private final int shardCells;
+
+    // union-find a szeleteken, koronkent ujraepul
+    private int[] parents = new int[0];
+
+    // a szeletek koronkent ujrahasznosulnak, amig a tabla ugyanaz
+    private Board board;
+    private Board[] ownFlagShards = new Board[0];
+    private Board[] sharedFlagShards = new Board[0];
+
+    // a parancsok csoportonkent, az eredeti sorrendben
+    private int[] commandShards = new int[0];
+    private int[] order = new int[0];
+    private int[] groupStarts = new int[0];
+
+    // a tesztek ezzel ellenorzik, hogy a parhuzamos ag futott
+    private long parallelRuns;
+    private int lastGroups;
+    private int lastRouted;
+
+    /**
+     * @param shardCells cells per shard, rounded up to whole storage pages.
+     */
+    ShardedRound(ForkJoinPool pool, int shardCells) {
+        if (shardCells <= 0) {
+            throw new IllegalArgumentException("Shard size must be greater than zero.");
+        }
+
+        int pages = (int) Math.min(((long) shardCells + BoardStorage.PAGE_MASK) >>> BoardStorage.PAGE_SHIFT,
+                                   1 << (30 - BoardStorage.PAGE_SHIFT));
+        this.pool = pool;
+        this.shardCells = pages << BoardStorage.PAGE_SHIFT;
+    }
+
+    ForkJoinPool getPool() { return pool; }
+
+    int getShardCells() { return shardCells; }
+
+    /**
+     * Number of executions that ran in parallel.
+     */
+    long getParallelRuns() { return parallelRuns; }
+
+    /**
+     * Groups and routed commands of the last parallel execution.
+     */
+    int getLastGroups() { return lastGroups; }
+
+    int getLastRouted() { return lastRouted; }
+
+    /**
+     * Executes the commands {@code 0 .. count - 1} that have cells.
+     * @param cells two cells of each command: a cell of the block of a range
+     *              command and -1, the two cells of a swap, or -1 and -1 for
+     *              commands not executed.
+     * @param ownFlags whether the shards get their own round flags, see
+     *                 {@link Board#shard(int, boolean)}.
+     */
+    void execute(Board board, int[] cells, int count, boolean ownFlags, CommandExecutor executor) {
+        int firstShard = board.getBase() / shardCells;
+        int shardCount = board.size() == 0 ? 0 :
+                (board.getBase() + board.size() - 1) / shardCells - firstShard + 1;
+
+        if (parents.length < shardCount) {
+            parents = new int[shardCount];
+            groupStarts = new int[shardCount + 1];
+        }
+        if (this.board != board || ownFlagShards.length < shardCount) {
+            this.board = board;
+            ownFlagShards = new Board[shardCount];
+            sharedFlagShards = new Board[shardCount];
+        }
+        Board[] cache = ownFlags ? ownFlagShards : sharedFlagShards;
+        if (commandShards.length < count) {
+            commandShards = new int[count];
+            order = new int[count];
+        }
+
+        for (int s = 0; s < shardCount; ++s) {
+            parents[s] = s;
+        }
+
+        int routed = 0;
+        for (int c = 0; c < count; ++c) {
+            if (cells[2 * c] < 0) {
+                commandShards[c] = -1;
+                continue;
+            }
+
+            int s = (board.getBase() + cells[2 * c]) / shardCells - firstShard;
+            commandShards[c] = s;
+            if (cells[2 * c + 1] >= 0) {
+                union(s, (board.getBase() + cells[2 * c + 1]) / shardCells - firstShard);
+            }
+            ++routed;
+        }
+
+        // csoportok: a gyoker szerint, a parancsok sorrendje megmarad
+        int groups = 0;
+        Arrays.fill(groupStarts, 0, shardCount + 1, 0);
+        for (int c = 0; c < count; ++c) {
+            if (commandShards[c] >= 0) {
+                int root = find(commandShards[c]);
+                commandShards[c] = root;
+                if (groupStarts[root + 1]++ == 0) {
+                    ++groups;
+                }
+            }
+        }
+
+        if (groups < 2 || routed < MIN_PARALLEL_COMMANDS) {
+            for (int c = 0; c < count; ++c) {
+                if (cells[2 * c] >= 0) {
+                    executor.execute(board, c);
+                }
+            }
+            return;
+        }
+
+        for (int s = 0; s < shardCount; ++s) {
+            groupStarts[s + 1] += groupStarts[s];
+        }
+        int[] next = Arrays.copyOf(groupStarts, shardCount);
+        for (int c = 0; c < count; ++c) {
+            if (commandShards[c] >= 0) {
+                order[next[commandShards[c]]++] = c;
+            }
+        }
+
+        Board[] shards = new Board[groups];
+        int[] starts = new int[groups + 1];
+        int g = 0;
+        for (int s = 0; s < shardCount; ++s) {
+            if (groupStarts[s + 1] > groupStarts[s]) {
+                // a gyoker a csoport elso szelete, a cellai onnan kezdodnek
+                if (cache[s] == null) {
+                    long from = Math.max(0L, (long) (firstShard + s) * shardCells - board.getBase());
+                    cache[s] = board.shard((int) from, ownFlags);
+                }
+                shards[g] = cache[s];
+                starts[g] = groupStarts[s];
+                ++g;
+            }
+        }
+        starts[groups] = routed;
+
+        ++parallelRuns;
+        lastGroups = groups;
+        lastRouted = routed;
+        pool.invoke(new Groups(shards, starts, 0, groups, executor));
+
+        for (Board shard : shards) {
+            board.mergeShard(shard);
+        }
+    }
+
+    private int find(int s) {
+        while (parents[s] != s) {
+            parents[s] = parents[parents[s]];
+            s = parents[s];
+        }
+        return s;
+    }
+
+    private void union(int a, int b) {
+        int ra = find(a);
+        int rb = find(b);
+        if (ra != rb) {
+            // a kisebb lesz a gyoker, igy az a csoport elso szelete
+            parents[Math.max(ra, rb)] = Math.min(ra, rb);
+        }
+    }
+
+    private final class Groups extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Board[] shards;
+        private final int[] starts;
+        private final int from;
+        private final int to;
+        private final CommandExecutor executor;
+
+        Groups(Board[] shards, int[] starts, int from, int to, CommandExecutor executor) {
+            this.shards = shards;
+            this.starts = starts;
+            this.from = from;
+            this.to = to;
+            this.executor = executor;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                for (int i = starts[from]; i < starts[to]; ++i) {
+                    executor.execute(shards[from], order[i]);
+                }
+            } else {
+                int middle = (from + to) >>> 1;
+                invokeAll(new Groups(shards, starts, from, middle, executor),
+                          new Groups(shards, starts, middle, to, executor));
+            }
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.loxon.javachallenge.memory;
+
+import com.loxon.javachallenge.memory.api.MemoryState;
+import com.loxon.javachallenge.memory.api.Player;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandAllocate;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandFree;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandSwap;
+import com.loxon.javachallenge.memory.api.communication.general.Command;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+public class ShardedRoundTest {
+    private static final int SHARD_CELLS = 4096;
+
+    private final ForkJoinPool pool = new ForkJoinPool(2);
+
+    @After
+    public void afterEachTest() {
+        pool.shutdown();
+    }
+
+    @Test
+    public void testSameAsSerial() {
+        //A last shard cut short too
+        assertSameAsSerial(4 * SHARD_CELLS, 7);
+        assertSameAsSerial(6 * SHARD_CELLS + 100, 17);
+    }
+
+    private void assertSameAsSerial( final int size, final long seed ) {
+        final List<MemoryState> memory = TestGames.randomMemory(new Random(seed), size);
+        final TestGames.RoundSource fortifyRounds = ( random, players ) -> TestGames.fortifyRound(random, players, size);
+        final GameImplementation serial = new GameImplementation();
+        final GameImplementation parallel = new GameImplementation();
+        parallel.setParallelExecution(pool, SHARD_CELLS);
+        final Player[] serialPlayers = TestGames.startGame(serial, memory, 200, 30);
+        final Player[] parallelPlayers = TestGames.startGame(parallel, memory, 200, 30);
+
+        //Same seeded commands, more than 64 a round, some swaps across shards
+        final Random random = new Random(seed + 1);
+        for ( int round = 0; round < 30; ++round ) {
+            //Fortify runs in the parallel phase of the responses
+            TestGames.assertSameRound(serial, serialPlayers, parallel, parallelPlayers, random.nextLong(),
+                round % 3 == 2 ? fortifyRounds : TestGames.randomRounds(size, SHARD_CELLS));
+        }
+        TestGames.assertSameState(serial, parallel);
+        Assert.assertTrue(parallel.getShardedRound().getParallelRuns() > 0);
+    }
+
+    @Test
+    public void testSwapsBetweenShards() {
+        final int shards = 8;
+        final List<MemoryState> memory = TestGames.randomMemory(new Random(21), shards * SHARD_CELLS);
+        final TestGames.RoundSource rounds = crossShardRounds(shards);
+        final GameImplementation serial = new GameImplementation();
+        final GameImplementation parallel = new GameImplementation();
+        parallel.setParallelExecution(pool, SHARD_CELLS);
+        final Player[] serialPlayers = TestGames.startGame(serial, memory, 300, 40);
+        final Player[] parallelPlayers = TestGames.startGame(parallel, memory, 300, 40);
+        final ShardedRound sharded = parallel.getShardedRound();
+
+        //Pairs of shards joined by swaps are groups, each round has to run in parallel
+        for ( int round = 0; round < 40; ++round ) {
+            final long runs = sharded.getParallelRuns();
+            TestGames.assertSameRound(serial, serialPlayers, parallel, parallelPlayers, round, rounds);
+            Assert.assertEquals(runs + 1, sharded.getParallelRuns());
+            Assert.assertTrue(sharded.getLastGroups() >= 2);
+            Assert.assertTrue(sharded.getLastRouted() >= ShardedRound.MIN_PARALLEL_COMMANDS);
+        }
+        TestGames.assertSameState(serial, parallel);
+    }
+
+    /**
+     * Commands on a few cells at the start of the shards, so the commands of
+     * a group depend on each other. Swaps join shard 2k with shard 2k + 1.
+     */
+    private static TestGames.RoundSource crossShardRounds( final int shards ) {
+        return ( random, players ) -> {
+            final Command[] commands = new Command[players.length];
+            for ( int i = 0; i < players.length; ++i ) {
+                final int pair = random.nextInt(shards / 2);
+                final int left = 2 * pair * SHARD_CELLS + random.nextInt(32);
+                final int right = (2 * pair + 1) * SHARD_CELLS + random.nextInt(32);
+                switch ( random.nextInt(5) ) {
+                    case 0:
+                        commands[i] = new CommandAllocate(players[i], left, left ^ 1);
+                        break;
+                    case 1:
+                        commands[i] = new CommandAllocate(players[i], right, right ^ 1);
+                        break;
+                    case 2:
+                        commands[i] = new CommandFree(players[i], left, right);
+                        break;
+                    default:
+                        commands[i] = new CommandSwap(players[i], left, right);
+                }
+            }
+            return commands;
+        };
+    }
+}
@@ -0,0 +1,122 @@
+package com.loxon.javachallenge.memory;
+
+import java.util.Arrays;
+
+/**
+ * Swap partners of the cells touched by swaps in the current round.
+ *
+ * Each cell maps to a linked list of edges stored in primitive arrays.
+ * The cell lookup is an open addressing table whose slots are stamped with
+ * the round epoch, so {@link #clear()} does not have to touch the arrays.
+ */
+class SwapHistory {
+    public static final int NONE = -1;
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    // cella -> elso el, a slot csak az aktualis epoch-ban ervenyes
+    private int[] keys = new int[INITIAL_CAPACITY];
+    private int[] heads = new int[INITIAL_CAPACITY];
+    private int[] stamps = new int[INITIAL_CAPACITY];
+    private int used = 0;
+    private int epoch = 1;
+
+    // elek lancolt listaja
+    private int[] targets = new int[INITIAL_CAPACITY];
+    private int[] next = new int[INITIAL_CAPACITY];
+    private int edgeCount = 0;
+
+    public void clear() {
+        used = 0;
+        edgeCount = 0;
+
+        if (++epoch == 0) {
+            Arrays.fill(stamps, 0);
+            epoch = 1;
+        }
+    }
+
+    private static int hash(int cell) {
+        int h = cell * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private int find(int cell) {
+        int mask = keys.length - 1;
+        int slot = hash(cell) & mask;
+        while (stamps[slot] == epoch && keys[slot] != cell) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void grow() {
+        int[] oldKeys = keys;
+        int[] oldHeads = heads;
+        int[] oldStamps = stamps;
+        int oldEpoch = epoch;
+
+        keys = new int[oldKeys.length * 2];
+        heads = new int[oldKeys.length * 2];
+        stamps = new int[oldKeys.length * 2];
+        epoch = 1;
+
+        for (int i = 0; i < oldKeys.length; ++i) {
+            if (oldStamps[i] == oldEpoch) {
+                int slot = find(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                heads[slot] = oldHeads[i];
+                stamps[slot] = epoch;
+            }
+        }
+    }
+
+    /**
+     * Records that {@code to} was a swap partner of {@code from}.
+     */
+    public void add(int from, int to) {
+        if ((used + 1) * 2 > keys.length) {
+            grow();
+        }
+
+        if (edgeCount == targets.length) {
+            targets = Arrays.copyOf(targets, edgeCount * 2);
+            next = Arrays.copyOf(next, edgeCount * 2);
+        }
+
+        int slot = find(from);
+        if (stamps[slot] != epoch) {
+            keys[slot] = from;
+            heads[slot] = NONE;
+            stamps[slot] = epoch;
+            ++used;
+        }
+
+        targets[edgeCount] = to;
+        next[edgeCount] = heads[slot];
+        heads[slot] = edgeCount++;
+    }
+
+    /**
+     * Detaches the partners of the cell.
+     * @return first edge of the partner list, or {@link #NONE}
+     */
+    public int remove(int cell) {
+        int slot = find(cell);
+        if (stamps[slot] != epoch) {
+            return NONE;
+        }
+
+        int head = heads[slot];
+        heads[slot] = NONE;
+        return head;
+    }
+
+    public int target(int edge) {
+        return targets[edge];
+    }
+
+    public int next(int edge) {
+        return next[edge];
+    }
+}
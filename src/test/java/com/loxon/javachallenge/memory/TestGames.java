@@ -0,0 +1,236 @@
+package com.loxon.javachallenge.memory;
+
+import com.loxon.javachallenge.memory.api.Game;
+import com.loxon.javachallenge.memory.api.MemoryState;
+import com.loxon.javachallenge.memory.api.Player;
+import com.loxon.javachallenge.memory.api.PlayerScore;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandAllocate;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandFortify;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandFree;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandRecover;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandScan;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandScanBlocks;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandStats;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandSwap;
+import com.loxon.javachallenge.memory.api.communication.commands.ResponseScan;
+import com.loxon.javachallenge.memory.api.communication.commands.ResponseSuccessList;
+import com.loxon.javachallenge.memory.api.communication.general.Command;
+import com.loxon.javachallenge.memory.api.communication.general.Response;
+import org.junit.Assert;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Random games and assertions shared by the tests.
+ *
+ * Most tests play the same seeded rounds on the game under test and on a
+ * reference game, then compare the responses and the final state. A round is
+ * created by a {@link RoundSource} from its own {@link Random}, so both games
+ * get equal commands for their own players.
+ */
+public final class TestGames {
+    private static final MemoryState F = MemoryState.FREE;
+    private static final MemoryState S = MemoryState.SYSTEM;
+    private static final MemoryState C = MemoryState.CORRUPT;
+
+    private TestGames() {
+    }
+
+    /**
+     * Creates the commands of a round for the given players.
+     */
+    public interface RoundSource {
+        Command[] create( Random random, Player[] players );
+    }
+
+    /**
+     * Mostly free memory with some system and corrupt cells.
+     */
+    public static List<MemoryState> randomMemory( final Random random, final int size ) {
+        final List<MemoryState> memory = new ArrayList<>(size);
+        for ( int i = 0; i < size; ++i ) {
+            final int r = random.nextInt(20);
+            memory.add(r == 0 ? C : r < 3 ? S : F);
+        }
+        return memory;
+    }
+
+    /**
+     * Registers the players p0, p1, ...
+     */
+    public static Player[] registerPlayers( final Game game, final int count ) {
+        final Player[] players = new Player[count];
+        for ( int i = 0; i < count; ++i ) {
+            players[i] = game.registerPlayer("p" + i);
+        }
+        return players;
+    }
+
+    /**
+     * Registers the players and starts the game.
+     */
+    public static Player[] startGame( final Game game, final List<MemoryState> memory, final int playerCount,
+        final int rounds ) {
+        final Player[] players = registerPlayers(game, playerCount);
+        game.startGame(memory, rounds);
+        return players;
+    }
+
+    /**
+     * Random command, sometimes invalid. Swaps stay in the shard of their
+     * first cell, except one in eight.
+     */
+    public static Command randomCommand( final Random random, final Player player, final int size, final int shardCells ) {
+        final int cell = random.nextInt(size + 2) - 1;
+        final int second = random.nextInt(8) == 0 ? random.nextInt(size) : (cell & ~3) + random.nextInt(4);
+        final Integer cell1 = random.nextInt(4) == 0 ? null : second;
+        final boolean primitive = random.nextBoolean() && cell1 != null;
+
+        switch ( random.nextInt(10) ) {
+            case 0:
+            case 1:
+                return primitive ? new CommandAllocate(player, cell, cell1) : new CommandAllocate(player, Arrays.asList(cell, cell1));
+            case 2:
+                return primitive ? new CommandFree(player, cell, cell1) : new CommandFree(player, Arrays.asList(cell, cell1));
+            case 3:
+                return primitive ? new CommandRecover(player, cell, cell1) : new CommandRecover(player, Arrays.asList(cell, cell1));
+            case 4:
+                return primitive ? new CommandFortify(player, cell, cell1) : new CommandFortify(player, Arrays.asList(cell, cell1));
+            case 5:
+                final int first = Math.max(0, Math.min(cell, size - 1));
+                final int shard = first / shardCells * shardCells;
+                final int partner = random.nextInt(8) == 0 ? random.nextInt(size) :
+                    shard + random.nextInt(Math.min(shardCells, size - shard));
+                return new CommandSwap(player, first, partner);
+            case 6:
+                return new CommandScan(player, cell);
+            case 7:
+                return new CommandScanBlocks(player, cell, 1 + random.nextInt(3));
+            case 8:
+                return new CommandStats(player);
+            default:
+                return new CommandAllocate(player, Arrays.asList(cell, null));
+        }
+    }
+
+    /**
+     * One round of random commands: most players send one, some send none
+     * or a second one, which is rejected.
+     */
+    public static Command[] randomRound( final Random random, final Player[] players, final int size, final int shardCells ) {
+        final List<Command> commands = new ArrayList<>();
+        for ( final Player p : players ) {
+            final int r = random.nextInt(10);
+            if ( r > 0 ) {
+                commands.add(randomCommand(random, p, size, shardCells));
+            }
+            if ( r == 9 ) {
+                commands.add(randomCommand(random, p, size, shardCells));
+            }
+        }
+        Collections.shuffle(commands, random);
+        return commands.toArray(new Command[0]);
+    }
+
+    /**
+     * Every player fortifies a random pair of cells.
+     */
+    public static Command[] fortifyRound( final Random random, final Player[] players, final int size ) {
+        final Command[] commands = new Command[players.length];
+        for ( int i = 0; i < players.length; ++i ) {
+            final int cell = random.nextInt(size);
+            commands[i] = new CommandFortify(players[i], cell, cell ^ 1);
+        }
+        return commands;
+    }
+
+    /**
+     * Rounds of {@link #randomRound}.
+     */
+    public static RoundSource randomRounds( final int size, final int shardCells ) {
+        return (random, players) -> randomRound(random, players, size, shardCells);
+    }
+
+    /**
+     * Rounds of {@link #randomRound}, every third one a {@link #fortifyRound} on average.
+     */
+    public static RoundSource mixedRounds( final int size ) {
+        return (random, players) -> random.nextInt(3) == 0 ?
+            fortifyRound(random, players, size) : randomRound(random, players, size, size);
+    }
+
+    /**
+     * Plays the round created from the seed.
+     */
+    public static List<Response> playRound( final Game game, final Player[] players, final long seed,
+        final RoundSource rounds ) {
+        return game.nextRound(rounds.create(new Random(seed), players));
+    }
+
+    /**
+     * Plays the round created from the seed on both games and checks that
+     * they answer the same.
+     */
+    public static void assertSameRound( final Game expected, final Player[] expectedPlayers,
+        final Game actual, final Player[] actualPlayers, final long seed, final RoundSource rounds ) {
+        assertSameResponses(playRound(expected, expectedPlayers, seed, rounds),
+            playRound(actual, actualPlayers, seed, rounds));
+    }
+
+    /**
+     * Equal responses in the same order, for players of the same name.
+     */
+    public static void assertSameResponses( final List<Response> expected, final List<Response> actual ) {
+        Assert.assertEquals(expected.size(), actual.size());
+        for ( int i = 0; i < expected.size(); ++i ) {
+            Assert.assertEquals(expected.get(i).getPlayer().getName(), actual.get(i).getPlayer().getName());
+            Assert.assertEquals(expected.get(i), actual.get(i));
+        }
+    }
+
+    /**
+     * Same board and scores.
+     */
+    public static void assertSameState( final Game expected, final Game actual ) {
+        Assert.assertEquals(expected.visualize(), actual.visualize());
+        Assert.assertEquals(scoresOf(expected), scoresOf(actual));
+    }
+
+    public static String scoresOf( final Game game ) {
+        return scoresOf(game.getScores());
+    }
+
+    public static String scoresOf( final List<PlayerScore> scores ) {
+        return scores.stream()
+            .map(s -> s.getPlayer().getName() + " " + s)
+            .collect(Collectors.joining("\n"));
+    }
+
+    /**
+     * Every expected response is among the responses, in any order.
+     */
+    public static void assertResponse( final List<Response> actual, final Response... expected ) {
+        final Map<Player, Response> actualMap = actual.stream()
+            .collect(Collectors.toMap(Response::getPlayer, Function.identity()));
+        for ( final Response r : expected ) {
+            final Response rsp = actualMap.get(r.getPlayer());
+            Assert.assertNotNull("Missing response.", rsp);
+            Assert.assertEquals(r, rsp);
+        }
+    }
+
+    public static ResponseSuccessList list( final Player player, final int... cells ) {
+        return new ResponseSuccessList(player, cells, cells.length);
+    }
+
+    public static ResponseScan cells( final Player player, final int firstCell, final MemoryState... states ) {
+        return new ResponseScan(player, firstCell, states, states.length);
+    }
+}
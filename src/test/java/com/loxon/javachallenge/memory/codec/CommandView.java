@@ -0,0 +1,188 @@
+package com.loxon.javachallenge.memory.codec;
+
+import com.loxon.javachallenge.memory.api.Player;
+import com.loxon.javachallenge.memory.api.communication.commands.*;
+import com.loxon.javachallenge.memory.api.communication.general.Command;
+import com.loxon.javachallenge.memory.api.communication.general.CommandType;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read-only flyweight over a command encoded by {@link MessageCodec}.
+ *
+ * The fields are read from the buffer on access, so a command can be checked
+ * without creating objects. One instance can be reused for any number of
+ * commands with {@link #wrap(ByteBuffer, int, int)}, the position and limit
+ * of the buffer are not changed.
+ */
+public final class CommandView {
+    private ByteBuffer buffer;
+    private int offset;
+    private CommandType type;
+    private int count;
+
+    /**
+     * Points the view to a command and checks its structure.
+     * @param length number of bytes available from the offset, at least the size of the command.
+     * @return this view
+     * @throws IllegalArgumentException if the command is malformed or longer than the available bytes.
+     */
+    public CommandView wrap(ByteBuffer buffer, int offset, int length) {
+        if (length < MessageCodec.COMMAND_HEADER) {
+            throw new IllegalArgumentException("Truncated command.");
+        }
+
+        CommandType type = MessageCodec.commandType(buffer.get(offset));
+        int count = buffer.getInt(offset + 1);
+
+        int expected;
+        switch (type) {
+            case SCAN:
+                expected = 1;
+                break;
+            case SCAN_BLOCKS:
+                expected = 2;
+                break;
+            case STATS:
+            case UNKNOWN:
+                expected = 0;
+                break;
+            default:
+                expected = count;
+                break;
+        }
+
+        if (count != expected || count < -1 || count > (length - MessageCodec.COMMAND_HEADER) / 4 ||
+            MessageCodec.commandSize(count) > length) {
+            throw new IllegalArgumentException("Invalid cell count: " + count);
+        }
+
+        this.buffer = buffer;
+        this.offset = offset;
+        this.type = type;
+        this.count = count;
+        return this;
+    }
+
+    public CommandType getType() {
+        return type;
+    }
+
+    public int getEncodedSize() {
+        return MessageCodec.commandSize(count);
+    }
+
+    /**
+     * Number of cells, -1 if the cell list of a general command is null.
+     * A scan has one cell, a block scan has the first cell and the block count.
+     */
+    public int getCellCount() {
+        return count;
+    }
+
+    public boolean hasCell(int i) {
+        checkIndex(i);
+        int mask = offset + MessageCodec.COMMAND_HEADER + 4 * count + (i >>> 3);
+        return (buffer.get(mask) & (1 << (i & 7))) != 0;
+    }
+
+    /**
+     * Value of a cell, 0 for null cells, see {@link #hasCell(int)}.
+     */
+    public int getCell(int i) {
+        checkIndex(i);
+        return buffer.getInt(offset + MessageCodec.COMMAND_HEADER + 4 * i);
+    }
+
+    private void checkIndex(int i) {
+        if (i < 0 || i >= count) {
+            throw new IndexOutOfBoundsException("Cell: " + i + ", count: " + count);
+        }
+    }
+
+    private Integer cell(int i) {
+        return hasCell(i) ? getCell(i) : null;
+    }
+
+    /**
+     * Creates the command object of the given player.
+     */
+    public Command toCommand(Player p) {
+        switch (type) {
+            case SCAN:
+                return new CommandScan(p, cell(0));
+            case SCAN_BLOCKS:
+                return new CommandScanBlocks(p, cell(0), cell(1));
+            case STATS:
+                return new CommandStats(p);
+            case UNKNOWN:
+                return new UnknownCommand(p);
+            default:
+                break;
+        }
+
+        // null cella nelkul primitiv cellakkal, kulonben listaval
+        boolean complete = count >= 0;
+        for (int i = 0; complete && i < count; ++i) {
+            complete = hasCell(i);
+        }
+        if (complete) {
+            int[] cells = new int[count];
+            for (int i = 0; i < count; ++i) {
+                cells[i] = getCell(i);
+            }
+            return general(p, cells);
+        }
+
+        List<Integer> cells = null;
+        if (count >= 0) {
+            cells = new ArrayList<>(count);
+            for (int i = 0; i < count; ++i) {
+                cells.add(cell(i));
+            }
+        }
+        return general(p, cells);
+    }
+
+    private Command general(Player p, int[] cells) {
+        switch (type) {
+            case ALLOCATE:
+                return new CommandAllocate(p, cells, cells.length);
+            case FORTIFY:
+                return new CommandFortify(p, cells, cells.length);
+            case FREE:
+                return new CommandFree(p, cells, cells.length);
+            case RECOVER:
+                return new CommandRecover(p, cells, cells.length);
+            default:
+                return new CommandSwap(p, cells, cells.length);
+        }
+    }
+
+    private Command general(Player p, List<Integer> cells) {
+        switch (type) {
+            case ALLOCATE:
+                return new CommandAllocate(p, cells);
+            case FORTIFY:
+                return new CommandFortify(p, cells);
+            case FREE:
+                return new CommandFree(p, cells);
+            case RECOVER:
+                return new CommandRecover(p, cells);
+            default:
+                return new CommandSwap(p, cells);
+        }
+    }
+
+    /**
+     * Stands in for commands the game does not handle: they still use up the
+     * player's command for the round.
+     */
+    private static final class UnknownCommand extends Command {
+        UnknownCommand(final Player player) {
+            super(player);
+        }
+    }
+}
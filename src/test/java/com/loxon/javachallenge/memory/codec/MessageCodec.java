@@ -0,0 +1,196 @@
+package com.loxon.javachallenge.memory.codec;
+
+import com.loxon.javachallenge.memory.api.Player;
+import com.loxon.javachallenge.memory.api.communication.commands.*;
+import com.loxon.javachallenge.memory.api.communication.general.Command;
+import com.loxon.javachallenge.memory.api.communication.general.CommandGeneral;
+import com.loxon.javachallenge.memory.api.communication.general.CommandType;
+import com.loxon.javachallenge.memory.api.communication.general.Response;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Binary encoding of commands and responses with fixed width fields, big endian.
+ *
+ * Command: {@code [byte type][int count][count x int cell][presence mask]}.
+ * The cells are the cell list of general commands, the cell of a scan, or the
+ * cell and the block count of a block scan. The mask has one bit per cell
+ * ({@code (count + 7) / 8} bytes), a cleared bit stands for a null cell.
+ * A count of -1 means a null cell list.
+ *
+ * Response: {@code [byte kind][body]}, see the kind constants.
+ *
+ * The player is not encoded, it is known by the reader of the message.
+ * {@link CommandView} and {@link ResponseView} read encoded messages in place.
+ */
+public final class MessageCodec {
+    /** No response. No body. */
+    public static final byte NO_RESPONSE = 0;
+    /** {@link ResponseSuccessList}: {@code [int count][count x int cell]}. */
+    public static final byte SUCCESS_LIST = 1;
+    /** {@link ResponseScan}: {@code [int firstCell][int count][count x byte state]}. */
+    public static final byte SCAN = 2;
+    /** {@link ResponseStats}: eight ints in the order of {@link ResponseView}'s stats getters. */
+    public static final byte STATS = 3;
+
+    static final int COMMAND_HEADER = 5;
+    static final int STATS_SIZE = 8 * 4;
+
+    private static final CommandType[] TYPES = CommandType.values();
+
+    private MessageCodec() {
+    }
+
+    static int maskSize(int count) {
+        return count < 0 ? 0 : (count + 7) >>> 3;
+    }
+
+    static int commandSize(int count) {
+        return COMMAND_HEADER + (count < 0 ? 0 : 4 * count + maskSize(count));
+    }
+
+    private static int cellCount(Command c) {
+        switch (c.getType()) {
+            case SCAN:
+                return 1;
+            case SCAN_BLOCKS:
+                return 2;
+            case STATS:
+            case UNKNOWN:
+                return 0;
+            default:
+                return ((CommandGeneral) c).getCellCount();
+        }
+    }
+
+    /**
+     * Encoded size of a command in bytes.
+     */
+    public static int commandSize(Command c) {
+        return commandSize(cellCount(c));
+    }
+
+    /**
+     * Writes the command at the position of the buffer.
+     */
+    public static void putCommand(ByteBuffer buffer, Command c) {
+        int count = cellCount(c);
+        buffer.put((byte) c.getType().ordinal()).putInt(count);
+        if (count <= 0) {
+            return;
+        }
+
+        int maskStart = buffer.position() + 4 * count;
+        for (int i = 0; i < maskSize(count); ++i) {
+            buffer.put(maskStart + i, (byte) 0);
+        }
+
+        switch (c.getType()) {
+            case SCAN:
+                putCell(buffer, maskStart, 0, ((CommandScan) c).getCell());
+                break;
+
+            case SCAN_BLOCKS:
+                putCell(buffer, maskStart, 0, ((CommandScanBlocks) c).getCell());
+                putCell(buffer, maskStart, 1, ((CommandScanBlocks) c).getBlockCount());
+                break;
+
+            default:
+                CommandGeneral general = (CommandGeneral) c;
+                for (int i = 0; i < count; ++i) {
+                    if (general.hasCell(i)) {
+                        putCell(buffer, maskStart, i, general.getCell(i));
+                    } else {
+                        putCell(buffer, maskStart, i, null);
+                    }
+                }
+                break;
+        }
+
+        buffer.position(maskStart + maskSize(count));
+    }
+
+    private static void putCell(ByteBuffer buffer, int maskStart, int i, Integer cell) {
+        if (cell == null) {
+            buffer.putInt(0);
+        } else {
+            buffer.putInt(cell);
+            int mask = maskStart + (i >>> 3);
+            buffer.put(mask, (byte) (buffer.get(mask) | (1 << (i & 7))));
+        }
+    }
+
+    /**
+     * Reads a command from the position of the buffer.
+     * @throws IllegalArgumentException if the command is malformed.
+     */
+    public static Command getCommand(ByteBuffer buffer, Player p) {
+        CommandView view = new CommandView().wrap(buffer, buffer.position(), buffer.remaining());
+        buffer.position(buffer.position() + view.getEncodedSize());
+        return view.toCommand(p);
+    }
+
+    /**
+     * Encoded size of a response in bytes, null stands for no response.
+     */
+    public static int responseSize(Response r) {
+        if (r instanceof ResponseSuccessList) {
+            return 1 + 4 + 4 * ((ResponseSuccessList) r).getSuccessCount();
+        } else if (r instanceof ResponseScan) {
+            return 1 + 4 + 4 + ((ResponseScan) r).getStateCount();
+        } else if (r instanceof ResponseStats) {
+            return 1 + STATS_SIZE;
+        }
+        return 1;
+    }
+
+    /**
+     * Writes the response at the position of the buffer, null stands for no response.
+     */
+    public static void putResponse(ByteBuffer buffer, Response r) {
+        if (r instanceof ResponseSuccessList) {
+            ResponseSuccessList success = (ResponseSuccessList) r;
+            buffer.put(SUCCESS_LIST).putInt(success.getSuccessCount());
+            for (int i = 0; i < success.getSuccessCount(); ++i) {
+                buffer.putInt(success.getSuccessCell(i));
+            }
+        } else if (r instanceof ResponseScan) {
+            ResponseScan scan = (ResponseScan) r;
+            buffer.put(SCAN).putInt(scan.getFirstCell()).putInt(scan.getStateCount());
+            for (int i = 0; i < scan.getStateCount(); ++i) {
+                buffer.put((byte) scan.getState(i).ordinal());
+            }
+        } else if (r instanceof ResponseStats) {
+            ResponseStats stats = (ResponseStats) r;
+            buffer.put(STATS)
+                    .putInt(stats.getCellCount())
+                    .putInt(stats.getOwnedCells())
+                    .putInt(stats.getFreeCells())
+                    .putInt(stats.getAllocatedCells())
+                    .putInt(stats.getCorruptCells())
+                    .putInt(stats.getFortifiedCells())
+                    .putInt(stats.getSystemCells())
+                    .putInt(stats.getRemainingRounds());
+        } else {
+            buffer.put(NO_RESPONSE);
+        }
+    }
+
+    /**
+     * Reads a response from the position of the buffer.
+     * @return the response, or null for no response
+     * @throws IllegalArgumentException if the response is malformed.
+     */
+    public static Response getResponse(ByteBuffer buffer, Player p) {
+        ResponseView view = new ResponseView().wrap(buffer, buffer.position(), buffer.remaining());
+        buffer.position(buffer.position() + view.getEncodedSize());
+        return view.toResponse(p);
+    }
+
+    static CommandType commandType(int ordinal) {
+        if (ordinal < 0 || ordinal >= TYPES.length) {
+            throw new IllegalArgumentException("Unknown command type: " + ordinal);
+        }
+        return TYPES[ordinal];
+    }
+}
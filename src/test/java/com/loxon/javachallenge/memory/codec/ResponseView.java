@@ -0,0 +1,196 @@
+package com.loxon.javachallenge.memory.codec;
+
+import com.loxon.javachallenge.memory.api.MemoryState;
+import com.loxon.javachallenge.memory.api.Player;
+import com.loxon.javachallenge.memory.api.communication.commands.ResponseScan;
+import com.loxon.javachallenge.memory.api.communication.commands.ResponseStats;
+import com.loxon.javachallenge.memory.api.communication.commands.ResponseSuccessList;
+import com.loxon.javachallenge.memory.api.communication.general.Response;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Read-only flyweight over a response encoded by {@link MessageCodec}.
+ *
+ * Works like {@link CommandView}: fields are read on access, the view can be
+ * reused and the position and limit of the buffer are not changed. Getters of
+ * another kind of response than the wrapped one throw {@link IllegalStateException}.
+ */
+public final class ResponseView {
+    private static final MemoryState[] STATES = MemoryState.values();
+
+    private ByteBuffer buffer;
+    private int offset;
+    private byte kind;
+    private int size;
+
+    /**
+     * Points the view to a response and checks its structure.
+     * @param length number of bytes available from the offset, at least the size of the response.
+     * @return this view
+     * @throws IllegalArgumentException if the response is malformed or longer than the available bytes.
+     */
+    public ResponseView wrap(ByteBuffer buffer, int offset, int length) {
+        if (length < 1) {
+            throw new IllegalArgumentException("Truncated response.");
+        }
+
+        byte kind = buffer.get(offset);
+        int size;
+        switch (kind) {
+            case MessageCodec.NO_RESPONSE:
+                size = 1;
+                break;
+
+            case MessageCodec.SUCCESS_LIST:
+                size = length < 5 ? -1 : countedSize(buffer.getInt(offset + 1), 4, 5, length);
+                break;
+
+            case MessageCodec.SCAN:
+                size = length < 9 ? -1 : countedSize(buffer.getInt(offset + 5), 1, 9, length);
+                for (int i = 9; i < size; ++i) {
+                    int state = buffer.get(offset + i);
+                    if (state < 0 || state >= STATES.length) {
+                        throw new IllegalArgumentException("Invalid state: " + state);
+                    }
+                }
+                break;
+
+            case MessageCodec.STATS:
+                size = 1 + MessageCodec.STATS_SIZE;
+                break;
+
+            default:
+                throw new IllegalArgumentException("Unknown response kind: " + kind);
+        }
+
+        if (size < 0 || size > length) {
+            throw new IllegalArgumentException("Truncated response.");
+        }
+
+        this.buffer = buffer;
+        this.offset = offset;
+        this.kind = kind;
+        this.size = size;
+        return this;
+    }
+
+    private static int countedSize(int count, int itemSize, int header, int length) {
+        if (count < 0 || count > (length - header) / itemSize) {
+            return -1;
+        }
+        return header + count * itemSize;
+    }
+
+    /**
+     * One of the response kind constants of {@link MessageCodec}.
+     */
+    public byte getKind() {
+        return kind;
+    }
+
+    public int getEncodedSize() {
+        return size;
+    }
+
+    private void expect(byte expected) {
+        if (kind != expected) {
+            throw new IllegalStateException("Response kind is " + kind + ", not " + expected + ".");
+        }
+    }
+
+    private static void checkIndex(int i, int count) {
+        if (i < 0 || i >= count) {
+            throw new IndexOutOfBoundsException("Index: " + i + ", count: " + count);
+        }
+    }
+
+    // Success list
+    public int getSuccessCount() {
+        expect(MessageCodec.SUCCESS_LIST);
+        return buffer.getInt(offset + 1);
+    }
+
+    public int getSuccessCell(int i) {
+        checkIndex(i, getSuccessCount());
+        return buffer.getInt(offset + 5 + 4 * i);
+    }
+
+    // Scan
+    public int getFirstCell() {
+        expect(MessageCodec.SCAN);
+        return buffer.getInt(offset + 1);
+    }
+
+    public int getStateCount() {
+        expect(MessageCodec.SCAN);
+        return buffer.getInt(offset + 5);
+    }
+
+    public MemoryState getState(int i) {
+        checkIndex(i, getStateCount());
+        return STATES[buffer.get(offset + 9 + i)];
+    }
+
+    // Stats
+    private int stat(int i) {
+        expect(MessageCodec.STATS);
+        return buffer.getInt(offset + 1 + 4 * i);
+    }
+
+    public int getCellCount() { return stat(0); }
+
+    public int getOwnedCells() { return stat(1); }
+
+    public int getFreeCells() { return stat(2); }
+
+    public int getAllocatedCells() { return stat(3); }
+
+    public int getCorruptCells() { return stat(4); }
+
+    public int getFortifiedCells() { return stat(5); }
+
+    public int getSystemCells() { return stat(6); }
+
+    public int getRemainingRounds() { return stat(7); }
+
+    /**
+     * Creates the response object of the given player.
+     * @return the response, or null for {@link MessageCodec#NO_RESPONSE}
+     */
+    public Response toResponse(Player p) {
+        switch (kind) {
+            case MessageCodec.SUCCESS_LIST: {
+                int[] cells = new int[getSuccessCount()];
+                for (int i = 0; i < cells.length; ++i) {
+                    cells[i] = getSuccessCell(i);
+                }
+                return new ResponseSuccessList(p, cells, cells.length);
+            }
+
+            case MessageCodec.SCAN: {
+                MemoryState[] states = new MemoryState[getStateCount()];
+                for (int i = 0; i < states.length; ++i) {
+                    states[i] = getState(i);
+                }
+                return new ResponseScan(p, getFirstCell(), states, states.length);
+            }
+
+            case MessageCodec.STATS: {
+                ResponseStats stats = new ResponseStats(p);
+                stats.setCellCount(getCellCount());
+                stats.setOwnedCells(getOwnedCells());
+                stats.setFreeCells(getFreeCells());
+                stats.setAllocatedCells(getAllocatedCells());
+                stats.setCorruptCells(getCorruptCells());
+                stats.setFortifiedCells(getFortifiedCells());
+                stats.setSystemCells(getSystemCells());
+                stats.setRemainingRounds(getRemainingRounds());
+                return stats;
+            }
+
+            default:
+                return null;
+        }
+    }
+}
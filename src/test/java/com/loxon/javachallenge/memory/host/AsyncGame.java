@@ -0,0 +1,129 @@
+package com.loxon.javachallenge.memory.host;
+
+import com.loxon.javachallenge.memory.CommandInbox;
+import com.loxon.javachallenge.memory.GameImplementation;
+import com.loxon.javachallenge.memory.api.Game;
+import com.loxon.javachallenge.memory.api.Player;
+import com.loxon.javachallenge.memory.api.PlayerScore;
+import com.loxon.javachallenge.memory.api.communication.general.Command;
+import com.loxon.javachallenge.memory.api.communication.general.Response;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Non-blocking access to a hosted game.
+ *
+ * A command is answered by a future of the response of its player instead
+ * of waiting for the round, so no thread waits for the other players. The
+ * rounds are played by {@link #tick()}, e.g. from a timer, on the worker of
+ * the game in the {@link GameHost}. The futures are completed on that worker,
+ * dependent stages should use the async methods if they take long.
+ */
+public class AsyncGame {
+    private final HostedGame game;
+    private final CommandInbox inbox;
+    private final RoundCompletion completion = new RoundCompletion();
+
+    /**
+     * The players should be registered and the game started, later players
+     * cannot submit commands.
+     * @param game hosted game, its game must be a {@link GameImplementation}
+     *             not reusing its responses.
+     */
+    public AsyncGame(final HostedGame game) {
+        if (!(game.getGame() instanceof GameImplementation)) {
+            throw new IllegalArgumentException("Only GameImplementation games can be used asynchronously.");
+        }
+
+        this.game = game;
+        this.inbox = new CommandInbox((GameImplementation) game.getGame());
+    }
+
+    public HostedGame getGame() {
+        return game;
+    }
+
+    /**
+     * Adds a command to the next round. Can be called from any thread.
+     * @return the response of the player in the round. Completed with null if
+     *         the command gets no response, and exceptionally if the command
+     *         is not accepted, the game is over, the round fails or the
+     *         executor of the host rejects it.
+     */
+    public CompletableFuture<Response> submit(final Command command) {
+        CompletableFuture<Response> response = new CompletableFuture<>();
+        if (!inbox.submit(command, response)) {
+            response.completeExceptionally(new IllegalStateException(
+                    "Command not accepted: unknown player or already submitted in this round."));
+        }
+        return response;
+    }
+
+    /**
+     * Plays the next round with the commands submitted so far and completes
+     * their responses.
+     * @return responses of the round, completed with null when the game is over.
+     */
+    public CompletableFuture<List<Response>> tick() {
+        CompletableFuture<List<Response>> round = game.submit(g -> inbox.tick(completion));
+        round.whenComplete((responses, e) -> {
+            if (e instanceof RejectedExecutionException) {
+                // a kor nem futott le, a parancsai a tobbi hibas korhoz hasonloan zarulnak
+                inbox.fail((RejectedExecutionException) e, completion);
+            }
+        });
+        return round;
+    }
+
+    /**
+     * Scores of the players, calculated after the rounds already ticked.
+     */
+    public CompletableFuture<List<PlayerScore>> scores() {
+        return game.submit(Game::getScores);
+    }
+
+    // a kor parancsainak jatekosai alapjan rendeli a valaszokat a future-okhoz
+    private static final class RoundCompletion implements CommandInbox.RoundListener {
+        // csak a jatek munkaszalan, a korok kozott ures
+        private final Map<Player, CompletableFuture<Response>> pending = new IdentityHashMap<>();
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void roundPlayed(final List<Response> responses, final Command[] commands,
+                                final Object[] attachments, final int count) {
+            if (responses == null) {
+                roundFailed(new IllegalStateException("Game is over."), commands, attachments, count);
+                return;
+            }
+
+            for (int i = 0; i < count; ++i) {
+                pending.put(commands[i].getPlayer(), (CompletableFuture<Response>) attachments[i]);
+            }
+            for (int i = 0; i < responses.size(); ++i) {
+                CompletableFuture<Response> response = pending.remove(responses.get(i).getPlayer());
+                if (response != null) {
+                    response.complete(responses.get(i));
+                }
+            }
+
+            // ismeretlen parancsra nem jar valasz
+            for (CompletableFuture<Response> response : pending.values()) {
+                response.complete(null);
+            }
+            pending.clear();
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void roundFailed(final RuntimeException e, final Command[] commands,
+                                final Object[] attachments, final int count) {
+            for (int i = 0; i < count; ++i) {
+                ((CompletableFuture<Response>) attachments[i]).completeExceptionally(e);
+            }
+        }
+    }
+}
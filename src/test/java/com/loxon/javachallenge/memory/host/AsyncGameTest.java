@@ -0,0 +1,84 @@
+package com.loxon.javachallenge.memory.host;
+
+import com.loxon.javachallenge.memory.GameImplementation;
+import com.loxon.javachallenge.memory.TestGames;
+import com.loxon.javachallenge.memory.api.MemoryState;
+import com.loxon.javachallenge.memory.api.Player;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandAllocate;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandScan;
+import com.loxon.javachallenge.memory.api.communication.general.Response;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+public class AsyncGameTest {
+
+    private final static MemoryState F  = MemoryState.FREE;
+    private final static MemoryState AX = MemoryState.ALLOCATED;
+
+    private GameImplementation game;
+    private Player pA;
+    private Player pB;
+
+    @Before
+    public void createGame() {
+        game = new GameImplementation();
+        pA = game.registerPlayer("a");
+        pB = game.registerPlayer("b");
+        game.startGame(Collections.nCopies(16, F), 10);
+    }
+
+    @Test
+    public void testAsyncGame() throws Exception {
+        try ( final GameHost host = new GameHost(1) ) {
+            final AsyncGame async = new AsyncGame(host.host(game));
+
+            final CompletableFuture<Response> allocated = async.submit(new CommandAllocate(pA, 0, 1));
+            final CompletableFuture<Response> scanned = async.submit(new CommandScan(pB, 0));
+            Assert.assertFalse(allocated.isDone());
+            Assert.assertTrue(async.submit(new CommandScan(pA, 0)).isCompletedExceptionally());
+
+            //Responses are completed by the round
+            async.tick().get();
+            Assert.assertEquals(TestGames.list(pA, 0, 1), allocated.get());
+            Assert.assertEquals(TestGames.cells(pB, 0, AX, AX, F, F), scanned.get());
+            Assert.assertEquals(2, async.scores().get().get(0).getOwnedCells());
+        }
+    }
+
+    @Test
+    public void testRejectedTick() throws Exception {
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try ( final GameHost host = new GameHost(executor) ) {
+            final AsyncGame async = new AsyncGame(host.host(game));
+            final CompletableFuture<Response> allocated = async.submit(new CommandAllocate(pA, 0, 1));
+            final CompletableFuture<Response> scanned = async.submit(new CommandScan(pB, 0));
+            executor.shutdown();
+
+            //The commands of a rejected round fail like the commands of a failed round
+            Assert.assertTrue(async.tick().isCompletedExceptionally());
+            assertRejected(allocated);
+            assertRejected(scanned);
+
+            //The rejected round is closed, the players can submit for the next one
+            Assert.assertFalse(async.submit(new CommandScan(pA, 0)).isDone());
+        }
+    }
+
+    private static void assertRejected( final CompletableFuture<Response> response ) throws InterruptedException {
+        Assert.assertTrue(response.isCompletedExceptionally());
+        try {
+            response.get();
+            Assert.fail("Response of a rejected round.");
+        } catch ( ExecutionException e ) {
+            Assert.assertTrue(e.getCause() instanceof RejectedExecutionException);
+        }
+    }
+}
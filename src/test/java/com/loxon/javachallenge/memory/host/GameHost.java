@@ -0,0 +1,146 @@
+package com.loxon.javachallenge.memory.host;
+
+import com.loxon.javachallenge.memory.api.Game;
+import com.loxon.javachallenge.memory.api.PlayerScore;
+import com.loxon.javachallenge.memory.api.communication.general.Command;
+import com.loxon.javachallenge.memory.api.communication.general.Response;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Runs many games concurrently on a shared worker pool.
+ * Different games advance in parallel, while the rounds of a single game
+ * are always executed serially.
+ */
+public class GameHost implements AutoCloseable {
+    private final ExecutorService executor;
+    private final boolean ownsExecutor;
+
+    private final Set<HostedGame> games = ConcurrentHashMap.newKeySet();
+
+    private final LongAdder completedRounds = new LongAdder();
+    private volatile long statsStart = System.nanoTime();
+
+    /**
+     * Creates a host with its own pool of platform threads.
+     * @param workers number of worker threads.
+     */
+    public GameHost(final int workers) {
+        this(Executors.newFixedThreadPool(workers, workerFactory()), true);
+    }
+
+    /**
+     * Creates a host on an external executor, e.g. a virtual thread per task executor.
+     * The executor is not shut down by {@link #close()}.
+     * @param executor executor running the rounds.
+     */
+    public GameHost(final ExecutorService executor) {
+        this(executor, false);
+    }
+
+    private GameHost(final ExecutorService executor, final boolean ownsExecutor) {
+        this.executor = executor;
+        this.ownsExecutor = ownsExecutor;
+    }
+
+    private static ThreadFactory workerFactory() {
+        final AtomicInteger counter = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, "game-host-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+
+    /**
+     * Adds a game to the host. Players should be registered and the game started
+     * before rounds are submitted.
+     * @param game game to host.
+     * @return handle of the hosted game.
+     */
+    public HostedGame host(final Game game) {
+        HostedGame hosted = new HostedGame(game, executor);
+        games.add(hosted);
+        return hosted;
+    }
+
+    public void remove(final HostedGame game) {
+        games.remove(game);
+    }
+
+    public Set<HostedGame> getGames() {
+        return Collections.unmodifiableSet(games);
+    }
+
+    /**
+     * Runs an arbitrary operation on the game, serialized with its rounds.
+     */
+    public <T> CompletableFuture<T> execute(final HostedGame game, final Function<Game, T> operation) {
+        return game.submit(operation);
+    }
+
+    /**
+     * Schedules the next round of the game.
+     * @return responses of the round, completed with {@code null} when the game is over.
+     */
+    public CompletableFuture<List<Response>> nextRound(final HostedGame game, final Command... commands) {
+        return game.submit(g -> {
+            List<Response> responses = g.nextRound(commands);
+            if (responses != null) {
+                completedRounds.increment();
+            }
+            return responses;
+        });
+    }
+
+    public CompletableFuture<List<PlayerScore>> getScores(final HostedGame game) {
+        return game.submit(Game::getScores);
+    }
+
+    /**
+     * Number of rounds played by all games since the host was created
+     * or the statistics were reset.
+     */
+    public long getCompletedRounds() {
+        return completedRounds.sum();
+    }
+
+    /**
+     * Aggregate throughput of all hosted games.
+     * @return rounds per second since the host was created or the statistics were reset.
+     */
+    public double getRoundsPerSecond() {
+        long elapsed = System.nanoTime() - statsStart;
+        return elapsed <= 0 ? 0 : completedRounds.sum() * 1e9 / elapsed;
+    }
+
+    public void resetStatistics() {
+        completedRounds.reset();
+        statsStart = System.nanoTime();
+    }
+
+    @Override
+    public void close() {
+        games.clear();
+
+        if (ownsExecutor) {
+            executor.shutdown();
+            try {
+                executor.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
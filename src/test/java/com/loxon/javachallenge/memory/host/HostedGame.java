@@ -0,0 +1,96 @@
+package com.loxon.javachallenge.memory.host;
+
+import com.loxon.javachallenge.memory.api.Game;
+
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * A game owned by a {@link GameHost}.
+ * Operations submitted to the same game are executed one after the other,
+ * in submission order, never on two threads at the same time. A worker runs
+ * a limited batch of them before the game yields to the other games.
+ */
+public class HostedGame {
+    // egy drain legfeljebb ennyi feladatot futtat, utana a tobbi jatek kovetkezik
+    private static final int MAX_BATCH = 64;
+
+    private final Game game;
+    private final Executor executor;
+
+    private final Queue<Task<?>> tasks = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean(false);
+
+    HostedGame(final Game game, final Executor executor) {
+        this.game = game;
+        this.executor = executor;
+    }
+
+    public Game getGame() {
+        return game;
+    }
+
+    /**
+     * Queues an operation on the game.
+     * @return result of the operation, completed exceptionally if the operation
+     *         fails or the executor rejects the game.
+     */
+    <T> CompletableFuture<T> submit(final Function<Game, T> operation) {
+        final Task<T> task = new Task<>(operation);
+        tasks.add(task);
+        schedule();
+
+        return task.result;
+    }
+
+    // egyszerre csak egy drain futhat, ez adja a soros vegrehajtast
+    private void schedule() {
+        while (!tasks.isEmpty() && scheduled.compareAndSet(false, true)) {
+            try {
+                executor.execute(this::drain);
+                return;
+            } catch (RejectedExecutionException e) {
+                // a sorban allo feladatok sosem futnanak le
+                Task<?> task;
+                while ((task = tasks.poll()) != null) {
+                    task.result.completeExceptionally(e);
+                }
+                scheduled.set(false);
+            }
+        }
+    }
+
+    private void drain() {
+        Task<?> task;
+        for (int i = 0; i < MAX_BATCH && (task = tasks.poll()) != null; ++i) {
+            task.run(game);
+        }
+
+        scheduled.set(false);
+
+        // a maradek es a kozben erkezett feladatok a vegrehajto soranak vegere kerulnek
+        schedule();
+    }
+
+    private static final class Task<T> {
+        private final Function<Game, T> operation;
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+
+        Task(final Function<Game, T> operation) {
+            this.operation = operation;
+        }
+
+        void run(final Game game) {
+            try {
+                result.complete(operation.apply(game));
+            } catch (Throwable t) {
+                result.completeExceptionally(t);
+            }
+        }
+    }
+}
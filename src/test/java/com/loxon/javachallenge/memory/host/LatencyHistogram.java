@@ -0,0 +1,78 @@
+package com.loxon.javachallenge.memory.host;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histogram of durations in nanoseconds, with a bucket for every power of
+ * two. Recording is lock-free and can be done from any thread, percentiles
+ * are accurate to a factor of two.
+ */
+public class LatencyHistogram {
+    private static final int BUCKETS = 64;
+
+    // az i. vodor a [2^(i-1), 2^i) ertekeke, a 0. a nullake
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * @param nanos duration, negative values are counted as zero.
+     */
+    public void record(final long nanos) {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(BUCKETS - Long.numberOfLeadingZeros(value));
+        max.accumulateAndGet(value, Math::max);
+    }
+
+    public long getCount() {
+        long count = 0;
+        for (int i = 0; i < BUCKETS; ++i) {
+            count += counts.get(i);
+        }
+        return count;
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Upper bound of the given fraction of the recorded durations.
+     * @param fraction between 0 and 1, e.g. 0.99 for the 99th percentile.
+     * @return duration in nanoseconds, 0 if nothing was recorded.
+     */
+    public long getPercentile(final double fraction) {
+        if (fraction < 0 || fraction > 1) {
+            throw new IllegalArgumentException("Invalid fraction: " + fraction);
+        }
+
+        long total = getCount();
+        long needed = (long) Math.ceil(fraction * total);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; ++i) {
+            seen += counts.get(i);
+            if (seen >= needed && seen > 0) {
+                long upper = i == BUCKETS - 1 ? Long.MAX_VALUE : (1L << i) - 1;
+                return Math.min(upper, getMax());
+            }
+        }
+        return 0;
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKETS; ++i) {
+            counts.set(i, 0);
+        }
+        max.set(0);
+    }
+
+    @Override
+    public String toString() {
+        return "LatencyHistogram{" +
+                "count=" + getCount() +
+                ", p50=" + getPercentile(0.5) +
+                ", p99=" + getPercentile(0.99) +
+                ", max=" + getMax() +
+                '}';
+    }
+}
@@ -0,0 +1,278 @@
+package com.loxon.javachallenge.memory.host;
+
+import com.loxon.javachallenge.memory.CommandInbox;
+import com.loxon.javachallenge.memory.GameImplementation;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongSupplier;
+
+/**
+ * Plays the rounds of hosted games at fixed periods.
+ *
+ * The deadlines are kept in a hashed timing wheel: a ring of buckets, one
+ * for every tick of the timer, and a deadline goes to the bucket of its tick.
+ * Deadlines more than one turn of the wheel away wait for as many laps. A
+ * single timer thread visits one bucket per tick, so the cost of a tick
+ * depends on the games due in it, not on the number of games. The games may
+ * have any period, a deadline is late by at most one tick.
+ *
+ * When a deadline expires, the round is played on the worker of the game
+ * in the {@link GameHost}. If the previous round of the game is still being
+ * played, the round is skipped and the commands wait for the next deadline.
+ *
+ * A scheduler created by {@link #withClock} has no timer thread, its ticks
+ * are processed by {@link #advance()} at the time of the given clock.
+ */
+public class RoundScheduler implements AutoCloseable {
+    private final long tickNanos;
+    private final ScheduledGame[] wheel;
+    private final int mask;
+    private final LongSupplier clock;
+    private final long start;
+
+    // null, ha a ticket az advance() dolgozza fel
+    private final Thread thread;
+    private volatile boolean running = true;
+    // az uj jatekokat az idozito szal veszi fel a kereke
+    private final Queue<ScheduledGame> added = new ConcurrentLinkedQueue<>();
+    // csak az idozito szal eri el
+    private long tick;
+
+    private final LatencyHistogram tickJitter = new LatencyHistogram();
+    private final LatencyHistogram roundLatency = new LatencyHistogram();
+    private final LongAdder skippedRounds = new LongAdder();
+
+    /**
+     * Starts the timer thread.
+     * @param tickDuration resolution of the deadlines.
+     * @param wheelSize number of buckets, rounded up to a power of two. One
+     *                  turn of the wheel should cover the common periods.
+     */
+    public RoundScheduler(final long tickDuration, final TimeUnit unit, final int wheelSize) {
+        this(tickDuration, unit, wheelSize, System::nanoTime, true);
+    }
+
+    private RoundScheduler(final long tickDuration, final TimeUnit unit, final int wheelSize,
+                           final LongSupplier clock, final boolean timerThread) {
+        if (tickDuration <= 0) {
+            throw new IllegalArgumentException("Tick duration must be greater than zero.");
+        }
+        if (wheelSize <= 0 || wheelSize > 1 << 30) {
+            throw new IllegalArgumentException("Invalid wheel size: " + wheelSize);
+        }
+
+        int size = 1;
+        while (size < wheelSize) {
+            size <<= 1;
+        }
+
+        this.tickNanos = unit.toNanos(tickDuration);
+        this.wheel = new ScheduledGame[size];
+        this.mask = size - 1;
+        this.clock = clock;
+        this.start = clock.getAsLong();
+
+        if (timerThread) {
+            this.thread = new Thread(this::run, "round-scheduler");
+            this.thread.setDaemon(true);
+            this.thread.start();
+        } else {
+            this.thread = null;
+        }
+    }
+
+    /**
+     * Creates a scheduler without a timer thread, e.g. for tests or for an
+     * external event loop. The ticks are processed by {@link #advance()}.
+     * @param clock time in nanoseconds, like {@link System#nanoTime()}.
+     */
+    public static RoundScheduler withClock(final long tickDuration, final TimeUnit unit, final int wheelSize,
+                                           final LongSupplier clock) {
+        return new RoundScheduler(tickDuration, unit, wheelSize, clock, false);
+    }
+
+    /**
+     * Plays the rounds of a game at the given period, the first round one
+     * period from now. The players should be registered and the game
+     * started, later players cannot submit commands.
+     * @param game hosted game, its game must be a {@link GameImplementation}.
+     */
+    public ScheduledGame schedule(final HostedGame game, final long period, final TimeUnit unit) {
+        if (!(game.getGame() instanceof GameImplementation)) {
+            throw new IllegalArgumentException("Only GameImplementation games can be scheduled.");
+        }
+        if (period <= 0) {
+            throw new IllegalArgumentException("Round period must be greater than zero.");
+        }
+        if (!running) {
+            throw new IllegalStateException("Scheduler is closed.");
+        }
+
+        long periodNanos = unit.toNanos(period);
+        ScheduledGame scheduled = new ScheduledGame(game,
+                new CommandInbox((GameImplementation) game.getGame()), periodNanos);
+        scheduled.deadline = clock.getAsLong() - start + periodNanos;
+        added.add(scheduled);
+        return scheduled;
+    }
+
+    /**
+     * Delay of the timer from the deadlines. It includes the rounding of the
+     * deadlines to ticks.
+     */
+    public LatencyHistogram getTickJitter() {
+        return tickJitter;
+    }
+
+    /**
+     * Time from the deadlines to the responses being delivered.
+     */
+    public LatencyHistogram getRoundLatency() {
+        return roundLatency;
+    }
+
+    /**
+     * Number of deadlines when the previous round of the game was still
+     * being played.
+     */
+    public long getSkippedRounds() {
+        return skippedRounds.sum();
+    }
+
+    /**
+     * Processes the ticks ended by the current time of the clock. Only for
+     * schedulers created by {@link #withClock}, from one thread at a time.
+     * @return number of ticks processed.
+     */
+    public int advance() {
+        if (thread != null) {
+            throw new IllegalStateException("Scheduler is driven by its timer thread.");
+        }
+        if (!running) {
+            throw new IllegalStateException("Scheduler is closed.");
+        }
+        return processTicks();
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        if (thread == null) {
+            cancelAll();
+            return;
+        }
+
+        LockSupport.unpark(thread);
+        if (Thread.currentThread() != thread) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+
+    // Timer
+    private void run() {
+        while (running) {
+            // a tick a vegen dolgozodik fel, addigra minden hatarideje lejart
+            long tickEnd = start + (tick + 1) * tickNanos;
+            long now;
+            while (running && (now = clock.getAsLong()) - tickEnd < 0) {
+                LockSupport.parkNanos(this, tickEnd - now);
+            }
+            processTicks();
+        }
+
+        cancelAll();
+    }
+
+    private int processTicks() {
+        int processed = 0;
+        long now = clock.getAsLong();
+        while (running && now - (start + (tick + 1) * tickNanos) >= 0) {
+            ScheduledGame game;
+            while ((game = added.poll()) != null) {
+                insert(game, tick);
+            }
+
+            expire();
+            ++tick;
+            ++processed;
+        }
+        return processed;
+    }
+
+    // a meg futo jatekok leallnak
+    private void cancelAll() {
+        for (ScheduledGame head : wheel) {
+            for (ScheduledGame game = head; game != null; game = game.next) {
+                game.cancel();
+            }
+        }
+        ScheduledGame game;
+        while ((game = added.poll()) != null) {
+            game.cancel();
+        }
+    }
+
+    /**
+     * Puts a game to the bucket of its deadline.
+     * @param first the first tick still to be visited.
+     */
+    private void insert(final ScheduledGame game, final long first) {
+        // a mar lejart hatarido az elso meg hatralevo tickre kerul
+        long due = Math.max(game.deadline / tickNanos, first);
+        game.laps = (due - first) >>> Long.numberOfTrailingZeros(wheel.length);
+        int bucket = (int) (due & mask);
+        game.next = wheel[bucket];
+        wheel[bucket] = game;
+    }
+
+    private void expire() {
+        int bucket = (int) (tick & mask);
+        ScheduledGame expired = null;
+        ScheduledGame previous = null;
+        ScheduledGame game = wheel[bucket];
+        while (game != null) {
+            ScheduledGame next = game.next;
+            if (game.cancelled || game.laps == 0) {
+                // kivesszuk a vodorbol; az ujra idozites a bejaras utan jon, kulonben ugyanide kerulhetne
+                if (previous == null) {
+                    wheel[bucket] = next;
+                } else {
+                    previous.next = next;
+                }
+
+                if (!game.cancelled) {
+                    game.next = expired;
+                    expired = game;
+                }
+            } else {
+                --game.laps;
+                previous = game;
+            }
+            game = next;
+        }
+
+        while (expired != null) {
+            game = expired;
+            expired = game.next;
+
+            long now = clock.getAsLong();
+            long due = start + game.deadline;
+            tickJitter.record(now - due);
+            if (!game.play(clock, roundLatency, due)) {
+                skippedRounds.increment();
+            }
+
+            game.deadline += game.period;
+            insert(game, tick + 1);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.loxon.javachallenge.memory.host;
+
+import com.loxon.javachallenge.memory.GameImplementation;
+import com.loxon.javachallenge.memory.TestGames;
+import com.loxon.javachallenge.memory.api.MemoryState;
+import com.loxon.javachallenge.memory.api.communication.general.Command;
+import com.loxon.javachallenge.memory.api.communication.general.Response;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class RoundSchedulerTest {
+
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    public void testRoundScheduler() throws Exception {
+        final AtomicLong clock = new AtomicLong(-5 * MS);
+
+        //8 ticks of 1 ms: the 20 ms period takes more than two turns of the wheel
+        try ( final GameHost host = new GameHost(1);
+              final RoundScheduler scheduler = RoundScheduler.withClock(1, TimeUnit.MILLISECONDS, 8, clock::get) ) {
+            final HostedGame fast = host.host(new CountingGame());
+            final HostedGame slow = host.host(new CountingGame());
+            final ScheduledGame fastRounds = scheduler.schedule(fast, 3, TimeUnit.MILLISECONDS);
+            scheduler.schedule(slow, 20, TimeUnit.MILLISECONDS);
+
+            //A deadline is played at the end of its tick
+            for ( int t = 1; t <= 44; ++t ) {
+                clock.addAndGet(MS);
+                Assert.assertEquals(1, scheduler.advance());
+                Assert.assertEquals("fast at " + t, (t - 1) / 3, roundsPlayed(host, fast));
+                Assert.assertEquals("slow at " + t, (t - 1) / 20, roundsPlayed(host, slow));
+            }
+            Assert.assertEquals(0, scheduler.advance());
+            Assert.assertEquals(16, scheduler.getTickJitter().getCount());
+            Assert.assertEquals(MS, scheduler.getTickJitter().getMax());
+
+            //A cancelled game is dropped, late ticks are caught up in one call
+            fastRounds.cancel();
+            Assert.assertTrue(fastRounds.getCompletion().isDone());
+            clock.addAndGet(20 * MS);
+            Assert.assertEquals(20, scheduler.advance());
+            Assert.assertEquals(14, roundsPlayed(host, fast));
+            Assert.assertEquals(3, roundsPlayed(host, slow));
+            Assert.assertEquals(4 * MS, scheduler.getTickJitter().getMax());
+            Assert.assertEquals(0, scheduler.getSkippedRounds());
+        }
+    }
+
+    @Test
+    public void testRejectedRound() throws Exception {
+        final AtomicLong clock = new AtomicLong();
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try ( final GameHost host = new GameHost(executor);
+              final RoundScheduler scheduler = RoundScheduler.withClock(1, TimeUnit.MILLISECONDS, 8, clock::get) ) {
+            final CountingGame game = new CountingGame();
+            final ScheduledGame scheduled = scheduler.schedule(host.host(game), 2, TimeUnit.MILLISECONDS);
+            executor.shutdown();
+
+            //The rejected round fails the game instead of leaving it in play
+            clock.addAndGet(3 * MS);
+            scheduler.advance();
+            Assert.assertTrue(scheduled.getCompletion().isCompletedExceptionally());
+            try {
+                scheduled.getCompletion().get();
+                Assert.fail("Rejected round completed the game.");
+            } catch ( ExecutionException e ) {
+                Assert.assertTrue(e.getCause() instanceof RejectedExecutionException);
+            }
+
+            //The failed game is dropped, its later deadlines are not skipped rounds
+            clock.addAndGet(20 * MS);
+            scheduler.advance();
+            Assert.assertEquals(0, scheduler.getSkippedRounds());
+            Assert.assertEquals(0, game.rounds);
+        }
+    }
+
+    @Test
+    public void testLatencyHistogram() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        Assert.assertEquals(0, histogram.getPercentile(0.5));
+
+        for ( int i = 1; i <= 100; ++i ) {
+            histogram.record(i);
+        }
+        histogram.record(-10);
+
+        //Percentiles are the upper bounds of the power of two buckets, capped by the maximum
+        Assert.assertEquals(101, histogram.getCount());
+        Assert.assertEquals(100, histogram.getMax());
+        Assert.assertEquals(0, histogram.getPercentile(0));
+        Assert.assertEquals(1, histogram.getPercentile(0.01));
+        Assert.assertEquals(63, histogram.getPercentile(0.5));
+        Assert.assertEquals(100, histogram.getPercentile(0.99));
+        Assert.assertEquals(100, histogram.getPercentile(1));
+
+        histogram.reset();
+        Assert.assertEquals(0, histogram.getCount());
+        Assert.assertEquals(0, histogram.getPercentile(1));
+    }
+
+    private static int roundsPlayed( final GameHost host, final HostedGame hosted ) throws Exception {
+        //The operation runs after the rounds already submitted to the game
+        return host.execute(hosted, g -> ((CountingGame) g).rounds).get(10, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Started game counting the rounds played, only read on the worker of the game.
+     */
+    private static final class CountingGame extends GameImplementation {
+        int rounds;
+
+        CountingGame() {
+            TestGames.startGame(this, Collections.nCopies(16, MemoryState.FREE), 2, 100);
+        }
+
+        @Override
+        public List<Response> nextRound( final Command... requests ) {
+            ++rounds;
+            return super.nextRound(requests);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.loxon.javachallenge.memory.host;
+
+import com.loxon.javachallenge.memory.CommandInbox;
+import com.loxon.javachallenge.memory.api.Player;
+import com.loxon.javachallenge.memory.api.communication.general.Command;
+import com.loxon.javachallenge.memory.api.communication.general.Response;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * A hosted game played at a fixed round period by a {@link RoundScheduler}.
+ *
+ * Players submit their commands for the next round at any time, from any
+ * thread. When the period expires the round is played with the commands
+ * that have arrived, and the response of each player is passed to the
+ * callback of the player.
+ */
+public class ScheduledGame {
+    private final HostedGame game;
+    private final CommandInbox inbox;
+    final long period;
+
+    private final Map<Player, Consumer<Response>> callbacks = new ConcurrentHashMap<>();
+    private final CompletableFuture<Void> completion = new CompletableFuture<>();
+    private final AtomicBoolean playing = new AtomicBoolean();
+    volatile boolean cancelled;
+
+    // az idozito szalae: a kovetkezo kor hatarideje es a hely a kerekben
+    long deadline;
+    long laps;
+    ScheduledGame next;
+
+    ScheduledGame(final HostedGame game, final CommandInbox inbox, final long period) {
+        this.game = game;
+        this.inbox = inbox;
+        this.period = period;
+    }
+
+    public HostedGame getGame() {
+        return game;
+    }
+
+    /**
+     * Adds a command to the next round.
+     * @return false if the player is not in the game or has already
+     *         submitted a command for the next round.
+     */
+    public boolean submit(final Command command) {
+        return inbox.submit(command);
+    }
+
+    /**
+     * Sets the callback receiving the responses of a player. Callbacks run on
+     * the worker playing the round, a response must not be kept after the
+     * callback returns if the game reuses its responses.
+     * @param callback null to stop receiving responses.
+     */
+    public void setCallback(final Player player, final Consumer<Response> callback) {
+        if (callback == null) {
+            callbacks.remove(player);
+        } else {
+            callbacks.put(player, callback);
+        }
+    }
+
+    /**
+     * Completed when the game is over or cancelled, or exceptionally if a
+     * round fails or the executor of the host rejects it.
+     */
+    public CompletableFuture<Void> getCompletion() {
+        return completion;
+    }
+
+    /**
+     * Stops playing rounds, the commands not played yet are dropped.
+     */
+    public void cancel() {
+        cancelled = true;
+        completion.complete(null);
+    }
+
+    /**
+     * Starts the round on the worker of the game.
+     * @return false if the previous round is still being played.
+     */
+    boolean play(final LongSupplier clock, final LatencyHistogram roundLatency, final long due) {
+        if (!playing.compareAndSet(false, true)) {
+            return false;
+        }
+
+        game.submit(g -> {
+            try {
+                List<Response> responses = cancelled ? null : inbox.tick();
+                if (responses != null) {
+                    deliver(responses);
+                    roundLatency.record(clock.getAsLong() - due);
+                } else {
+                    cancel();
+                }
+            } catch (RuntimeException e) {
+                cancelled = true;
+                completion.completeExceptionally(e);
+            } finally {
+                playing.set(false);
+            }
+            return null;
+        }).whenComplete((result, e) -> {
+            if (e != null) {
+                // a vegrehajto elutasitotta a kort, a feladat nem futott le
+                cancelled = true;
+                playing.set(false);
+                completion.completeExceptionally(e);
+            }
+        });
+        return true;
+    }
+
+    private void deliver(final List<Response> responses) {
+        for (int i = 0; i < responses.size(); ++i) {
+            Response response = responses.get(i);
+            Consumer<Response> callback = callbacks.get(response.getPlayer());
+            if (callback != null) {
+                try {
+                    callback.accept(response);
+                } catch (RuntimeException e) {
+                    // egy jatekos hibaja nem allitja meg a tobbieket
+                }
+            }
+        }
+    }
+}
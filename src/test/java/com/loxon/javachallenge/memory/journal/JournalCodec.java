@@ -0,0 +1,134 @@
+package com.loxon.javachallenge.memory.journal;
+
+import com.loxon.javachallenge.memory.api.MemoryState;
+import com.loxon.javachallenge.memory.api.Player;
+import com.loxon.javachallenge.memory.api.communication.general.Command;
+import com.loxon.javachallenge.memory.codec.MessageCodec;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+import java.util.function.ToIntFunction;
+
+/**
+ * Binary layout of the journal records.
+ *
+ * Every record starts with {@code [byte kind][int gameId]}. Players are
+ * referenced by their registration index in the game, {@link #UNREGISTERED}
+ * for players not registered to it. Commands of a round are stored as
+ * {@code [int player]} followed by the command in {@link MessageCodec} format.
+ */
+final class JournalCodec {
+    static final byte REGISTER = 1;
+    static final byte START = 2;
+    static final byte ROUND = 3;
+
+    static final int UNREGISTERED = -1;
+
+    static final int RECORD_HEADER = 5;
+
+    private static final MemoryState[] STATES = MemoryState.values();
+
+    private JournalCodec() {
+    }
+
+    private static ByteBuffer prepare(ByteBuffer buffer, int size) {
+        if (buffer == null || buffer.capacity() < size) {
+            return ByteBuffer.allocate(Math.max(size, buffer == null ? 0 : buffer.capacity() * 2));
+        }
+        buffer.clear();
+        return buffer;
+    }
+
+    // a hossz az adat elott, hibas rekordnal ne foglaljunk feleslegesen
+    private static void checkRemaining(ByteBuffer buffer, int count) {
+        if (count < 0 || count > buffer.remaining()) {
+            throw new BufferUnderflowException();
+        }
+    }
+
+    static ByteBuffer encodeRegister(ByteBuffer buffer, int gameId, String name) {
+        byte[] bytes = name == null ? null : name.getBytes(StandardCharsets.UTF_8);
+
+        buffer = prepare(buffer, RECORD_HEADER + 4 + (bytes == null ? 0 : bytes.length));
+        buffer.put(REGISTER).putInt(gameId);
+        if (bytes == null) {
+            buffer.putInt(-1);
+        } else {
+            buffer.putInt(bytes.length).put(bytes);
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    static String decodeName(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        checkRemaining(buffer, length);
+
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static ByteBuffer encodeStart(ByteBuffer buffer, int gameId, int rounds, List<MemoryState> memory) {
+        buffer = prepare(buffer, RECORD_HEADER + 8 + memory.size());
+        buffer.put(START).putInt(gameId).putInt(rounds).putInt(memory.size());
+        for (MemoryState state : memory) {
+            buffer.put((byte) state.ordinal());
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    static List<MemoryState> decodeMemory(ByteBuffer buffer) {
+        int size = buffer.getInt();
+        checkRemaining(buffer, size);
+        List<MemoryState> memory = new ArrayList<>(size);
+        for (int i = 0; i < size; ++i) {
+            memory.add(STATES[buffer.get()]);
+        }
+        return memory;
+    }
+
+    static ByteBuffer encodeRound(ByteBuffer buffer, int gameId, Command[] commands,
+                                  ToIntFunction<Player> playerIndex) {
+        int size = RECORD_HEADER + 4;
+        int count = 0;
+        for (Command c : commands) {
+            if (c != null) {
+                size += 4 + MessageCodec.commandSize(c);
+                ++count;
+            }
+        }
+
+        buffer = prepare(buffer, size);
+        buffer.put(ROUND).putInt(gameId).putInt(count);
+
+        for (Command c : commands) {
+            if (c != null) {
+                buffer.putInt(playerIndex.applyAsInt(c.getPlayer()));
+                MessageCodec.putCommand(buffer, c);
+            }
+        }
+
+        buffer.flip();
+        return buffer;
+    }
+
+    static Command[] decodeRound(ByteBuffer buffer, IntFunction<Player> players) {
+        int count = buffer.getInt();
+        checkRemaining(buffer, count);
+        Command[] commands = new Command[count];
+        for (int i = 0; i < commands.length; ++i) {
+            Player p = players.apply(buffer.getInt());
+            commands[i] = MessageCodec.getCommand(buffer, p);
+        }
+        return commands;
+    }
+}
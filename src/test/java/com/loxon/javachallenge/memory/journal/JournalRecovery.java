@@ -0,0 +1,136 @@
+package com.loxon.javachallenge.memory.journal;
+
+import com.loxon.javachallenge.memory.GameImplementationFactory;
+import com.loxon.javachallenge.memory.api.Game;
+import com.loxon.javachallenge.memory.api.MemoryState;
+import com.loxon.javachallenge.memory.api.Player;
+import com.loxon.javachallenge.memory.api.communication.general.Command;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Rebuilds games by replaying a journal.
+ */
+public final class JournalRecovery {
+
+    private JournalRecovery() {
+    }
+
+    private static class Replay {
+        final Game game;
+        final List<Player> players = new ArrayList<>();
+
+        Replay(final Game game) {
+            this.game = game;
+        }
+    }
+
+    public static Map<Integer, JournaledGame> recover(final Path path, final RoundJournal journal,
+                                                      final boolean durable) throws IOException {
+        return recover(path, journal, durable, GameImplementationFactory::get);
+    }
+
+    /**
+     * Replays every complete record of the journal file.
+     * @param path journal file to replay.
+     * @param journal journal the recovered games continue writing to, usually opened on the same file.
+     * @param durable durability mode of the recovered games.
+     * @param gameFactory creates the empty games to replay into.
+     * @return recovered games by game id, in order of their first record
+     */
+    public static Map<Integer, JournaledGame> recover(final Path path, final RoundJournal journal,
+                                                      final boolean durable,
+                                                      final Supplier<Game> gameFactory) throws IOException {
+        final Map<Integer, Replay> replays = new LinkedHashMap<>();
+        // a jatekba be nem regisztralt jatekosok helyett
+        final Player unregistered = new Player("");
+
+        try {
+            RoundJournal.read(path, record -> {
+                try {
+                    replay(replays, record, gameFactory, unregistered);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        Map<Integer, JournaledGame> games = new LinkedHashMap<>();
+        replays.forEach((id, replay) ->
+                games.put(id, new JournaledGame(id, replay.game, journal, durable, replay.players)));
+        return games;
+    }
+
+    private static void replay(final Map<Integer, Replay> replays, final ByteBuffer record,
+                               final Supplier<Game> gameFactory, final Player unregistered) throws IOException {
+        if (record.remaining() < JournalCodec.RECORD_HEADER) {
+            throw new IOException("Journal record too short: " + record.remaining() + " bytes.");
+        }
+
+        byte kind = record.get();
+        int gameId = record.getInt();
+        Replay replay = replays.computeIfAbsent(gameId, id -> new Replay(gameFactory.get()));
+
+        try {
+            switch (kind) {
+                case JournalCodec.REGISTER:
+                    String name = JournalCodec.decodeName(record);
+                    checkEnd(record, kind, gameId);
+                    Player p = apply(() -> replay.game.registerPlayer(name));
+                    if (p != null) {
+                        replay.players.add(p);
+                    }
+                    break;
+
+                case JournalCodec.START:
+                    int rounds = record.getInt();
+                    List<MemoryState> memory = JournalCodec.decodeMemory(record);
+                    checkEnd(record, kind, gameId);
+                    apply(() -> {
+                        replay.game.startGame(memory, rounds);
+                        return null;
+                    });
+                    break;
+
+                case JournalCodec.ROUND:
+                    Command[] commands = JournalCodec.decodeRound(record,
+                            i -> i == JournalCodec.UNREGISTERED ? unregistered : replay.players.get(i));
+                    checkEnd(record, kind, gameId);
+                    apply(() -> replay.game.nextRound(commands));
+                    break;
+
+                default:
+                    throw new IOException("Unknown journal record: " + kind);
+            }
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+            throw new IOException("Corrupt journal record " + kind + " of game " + gameId + ".", e);
+        }
+    }
+
+    private static void checkEnd(final ByteBuffer record, final byte kind, final int gameId) throws IOException {
+        if (record.hasRemaining()) {
+            throw new IOException("Journal record " + kind + " of game " + gameId + " has " +
+                                  record.remaining() + " extra bytes.");
+        }
+    }
+
+    // a naplo a hivas elott irodik, igy a hibas hivas is benne van; visszajatszva ugyanugy hibat dob
+    private static <T> T apply(final Supplier<T> call) {
+        try {
+            return call.get();
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.loxon.javachallenge.memory.journal;
+
+import com.loxon.javachallenge.memory.GameImplementationFactory;
+import com.loxon.javachallenge.memory.TestGames;
+import com.loxon.javachallenge.memory.api.Game;
+import com.loxon.javachallenge.memory.api.MemoryState;
+import com.loxon.javachallenge.memory.api.Player;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Random;
+
+public class JournalRecoveryTest {
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    @Test
+    public void testReplay() throws IOException {
+        final Path path = temp.newFile().toPath();
+        final List<MemoryState> memory = TestGames.randomMemory(new Random(1), 256);
+        final TestGames.RoundSource rounds = TestGames.randomRounds(memory.size(), memory.size());
+
+        final Game played;
+        try ( final RoundJournal journal = RoundJournal.open(path) ) {
+            final JournaledGame journaled = new JournaledGame(7, GameImplementationFactory.get(), journal, false);
+            final Player[] players = TestGames.startGame(journaled, memory, 5, 50);
+            for ( int round = 0; round < 30; ++round ) {
+                TestGames.playRound(journaled, players, round, rounds);
+            }
+            played = journaled;
+        }
+
+        //The replayed game is in the same state
+        try ( final RoundJournal journal = RoundJournal.open(path) ) {
+            final JournaledGame recovered = JournalRecovery.recover(path, journal, false).get(7);
+            Assert.assertEquals(5, recovered.getPlayers().size());
+            TestGames.assertSameState(played, recovered);
+        }
+    }
+
+    @Test
+    public void testCorruptRecord() throws IOException {
+        final Path path = temp.newFile().toPath();
+        final List<MemoryState> memory = TestGames.randomMemory(new Random(3), 64);
+        final TestGames.RoundSource rounds = TestGames.randomRounds(memory.size(), memory.size());
+
+        final Game played;
+        try ( final RoundJournal journal = RoundJournal.open(path) ) {
+            final JournaledGame journaled = new JournaledGame(1, GameImplementationFactory.get(), journal, true);
+            final Player[] players = TestGames.startGame(journaled, memory, 3, 20);
+            for ( int round = 0; round < 10; ++round ) {
+                TestGames.playRound(journaled, players, round, rounds);
+            }
+            played = journaled;
+        }
+        try ( final RoundJournal journal = RoundJournal.open(path) ) {
+            TestGames.assertSameState(played, JournalRecovery.recover(path, journal, false).get(1));
+        }
+
+        //A complete record with a broken payload is reported, not replayed
+        try ( final RoundJournal journal = RoundJournal.open(path) ) {
+            journal.append(ByteBuffer.wrap(new byte[] { 3 }));
+        }
+        try ( final RoundJournal journal = RoundJournal.open(path) ) {
+            JournalRecovery.recover(path, journal, false);
+            Assert.fail("Corrupt record was replayed.");
+        } catch ( IOException e ) {
+            Assert.assertTrue(e.getMessage(), e.getMessage().contains("too short"));
+        }
+    }
+
+    @Test
+    public void testPartialGroupCommit() throws IOException {
+        final Path path = temp.newFile().toPath();
+        final List<MemoryState> memory = TestGames.randomMemory(new Random(5), 128);
+        final TestGames.RoundSource rounds = TestGames.randomRounds(memory.size(), memory.size());
+
+        final Game expected = GameImplementationFactory.get();
+        final Player[] expectedPlayers = TestGames.startGame(expected, memory, 4, 30);
+
+        try ( final RoundJournal journal = RoundJournal.open(path) ) {
+            final JournaledGame journaled = new JournaledGame(1, GameImplementationFactory.get(), journal, false);
+            final Player[] players = TestGames.startGame(journaled, memory, 4, 30);
+            for ( int round = 0; round < 5; ++round ) {
+                TestGames.assertSameRound(expected, expectedPlayers, journaled, players, round, rounds);
+            }
+            journal.sync();
+
+            //The next group commit has two rounds, the crash tears the second one
+            TestGames.assertSameRound(expected, expectedPlayers, journaled, players, 5, rounds);
+            TestGames.playRound(journaled, players, 6, rounds);
+        }
+        try ( final FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE) ) {
+            channel.truncate(channel.size() - 5);
+        }
+
+        //The recovered game has every complete round and goes on writing the journal
+        try ( final RoundJournal journal = RoundJournal.open(path) ) {
+            final JournaledGame recovered = JournalRecovery.recover(path, journal, false).get(1);
+            TestGames.assertSameState(expected, recovered);
+
+            final Player[] players = recovered.getPlayers().toArray(new Player[0]);
+            TestGames.assertSameRound(expected, expectedPlayers, recovered, players, 7, rounds);
+            TestGames.assertSameState(expected, recovered);
+        }
+        try ( final RoundJournal journal = RoundJournal.open(path) ) {
+            TestGames.assertSameState(expected, JournalRecovery.recover(path, journal, false).get(1));
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.loxon.javachallenge.memory.journal;
+
+import com.loxon.javachallenge.memory.api.Game;
+import com.loxon.javachallenge.memory.api.MemoryState;
+import com.loxon.javachallenge.memory.api.Player;
+import com.loxon.javachallenge.memory.api.PlayerScore;
+import com.loxon.javachallenge.memory.api.communication.general.Command;
+import com.loxon.javachallenge.memory.api.communication.general.Response;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Game decorator recording every input of the game into a {@link RoundJournal},
+ * so the game can be rebuilt by {@link JournalRecovery} after a crash.
+ *
+ * Every call is appended before it is applied to the game, so nothing is applied
+ * that a recovery could not replay; a call failing in the game fails the same way
+ * when replayed. In durable mode no method returns before its record is forced
+ * to disk; games sharing a journal are synced together by its group commit.
+ */
+public class JournaledGame implements Game {
+    private final int gameId;
+    private final Game game;
+    private final RoundJournal journal;
+    private final boolean durable;
+
+    private final List<Player> players = new ArrayList<>();
+    private final Map<Player, Integer> playerIndexes = new IdentityHashMap<>();
+
+    private ByteBuffer buffer = ByteBuffer.allocate(256);
+
+    /**
+     * @param gameId identifier of the game in the journal, unique among the games sharing it.
+     * @param game the game to record.
+     * @param journal journal to write.
+     * @param durable wait for the disk after every call, otherwise records are only buffered
+     *                until the next {@link RoundJournal#sync()}.
+     */
+    public JournaledGame(final int gameId, final Game game, final RoundJournal journal, final boolean durable) {
+        this.gameId = gameId;
+        this.game = game;
+        this.journal = journal;
+        this.durable = durable;
+    }
+
+    JournaledGame(final int gameId, final Game game, final RoundJournal journal, final boolean durable,
+                  final List<Player> players) {
+        this(gameId, game, journal, durable);
+        for (Player p : players) {
+            addPlayer(p);
+        }
+    }
+
+    public int getGameId() {
+        return gameId;
+    }
+
+    /**
+     * Registered players in registration order, including the ones restored from the journal.
+     * @return list of players
+     */
+    public List<Player> getPlayers() {
+        return Collections.unmodifiableList(players);
+    }
+
+    private void addPlayer(final Player p) {
+        playerIndexes.put(p, players.size());
+        players.add(p);
+    }
+
+    private int getPlayerIndex(final Player p) {
+        Integer index = playerIndexes.get(p);
+        return index == null ? JournalCodec.UNREGISTERED : index;
+    }
+
+    private void write(final ByteBuffer record) {
+        try {
+            long sequence = journal.append(record);
+            if (durable) {
+                journal.sync(sequence);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public synchronized Player registerPlayer(final String name) {
+        buffer = JournalCodec.encodeRegister(buffer, gameId, name);
+        write(buffer);
+        Player p = game.registerPlayer(name);
+        addPlayer(p);
+        return p;
+    }
+
+    @Override
+    public synchronized void startGame(final List<MemoryState> initialMemory, final int rounds) {
+        buffer = JournalCodec.encodeStart(buffer, gameId, rounds, initialMemory);
+        write(buffer);
+        game.startGame(initialMemory, rounds);
+    }
+
+    @Override
+    public synchronized List<Response> nextRound(final Command... requests) {
+        buffer = JournalCodec.encodeRound(buffer, gameId, requests, this::getPlayerIndex);
+        write(buffer);
+        return game.nextRound(requests);
+    }
+
+    @Override
+    public List<PlayerScore> getScores() {
+        return game.getScores();
+    }
+
+    @Override
+    public String visualize() {
+        return game.visualize();
+    }
+
+    @Override
+    public void visualize(final Appendable out) throws IOException {
+        game.visualize(out);
+    }
+}
@@ -0,0 +1,306 @@
+package com.loxon.javachallenge.memory.journal;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only binary log with group commit.
+ *
+ * Records are framed as {@code [int length][int crc32][payload]}. Appending only
+ * copies the record into an in-memory buffer; {@link #sync(long)} makes it durable.
+ * Threads waiting for durability at the same time share a single write and
+ * {@code fsync}: one of them writes out everything buffered so far, the others
+ * wait for it.
+ *
+ * A torn record at the end of the file (crash during write) is detected by its
+ * length or checksum and cut off when the journal is opened again. Every
+ * record has a payload, so a zero-filled tail never passes as records.
+ *
+ * If writing or forcing the file fails, the journal is failed: what is on
+ * disk is unknown, so every later append and sync throws.
+ */
+public class RoundJournal implements Closeable {
+    private static final int HEADER_SIZE = 8;
+    private static final int DEFAULT_BUFFER_SIZE = 1 << 16;
+
+    private final FileChannel channel;
+    private final CRC32 crc = new CRC32();
+
+    private final Object lock = new Object();
+    private ByteBuffer active;
+    private ByteBuffer spare;
+    private boolean syncing = false;
+    private long appended = 0;
+    private long durable = 0;
+    private boolean closed = false;
+    private IOException failure;
+
+    private RoundJournal(final FileChannel channel, final int bufferSize) {
+        this.channel = channel;
+        this.active = ByteBuffer.allocateDirect(bufferSize);
+        this.spare = ByteBuffer.allocateDirect(bufferSize);
+    }
+
+    /**
+     * Opens a journal for appending, creating it if it does not exist.
+     * Incomplete records at the end of an existing file are removed.
+     */
+    public static RoundJournal open(final Path path) throws IOException {
+        return open(path, DEFAULT_BUFFER_SIZE);
+    }
+
+    public static RoundJournal open(final Path path, final int bufferSize) throws IOException {
+        FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            long end = scan(channel, null);
+            channel.truncate(end);
+            channel.position(end);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        return new RoundJournal(channel, bufferSize);
+    }
+
+    /**
+     * Reads every complete record of a journal file in order.
+     * @param consumer receives the payload of each record; the buffer is only valid during the call.
+     */
+    public static void read(final Path path, final Consumer<ByteBuffer> consumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            scan(channel, consumer);
+        }
+    }
+
+    // a fajl elejetol olvas, visszaadja az utolso ep rekord veget
+    private static long scan(final FileChannel channel, final Consumer<ByteBuffer> consumer) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20);
+        CRC32 checksum = new CRC32();
+        long size = channel.size();
+        long position = 0;
+        long validEnd = 0;
+
+        channel.position(0);
+        while (true) {
+            int read = channel.read(buffer);
+            buffer.flip();
+
+            int needed = 0;
+            while (buffer.remaining() >= HEADER_SIZE) {
+                int start = buffer.position();
+                int length = buffer.getInt(start);
+                int expectedCrc = buffer.getInt(start + 4);
+
+                // ures rekord nincs, a fajlon tulnyulo pedig csonka vagy szemet
+                if (length <= 0 || position + HEADER_SIZE + length > size) {
+                    return validEnd;
+                }
+
+                if (buffer.remaining() < HEADER_SIZE + length) {
+                    needed = HEADER_SIZE + length;
+                    break;
+                }
+
+                ByteBuffer payload = buffer.duplicate();
+                payload.position(start + HEADER_SIZE).limit(start + HEADER_SIZE + length);
+
+                checksum.reset();
+                checksum.update(payload.duplicate());
+                if ((int) checksum.getValue() != expectedCrc) {
+                    return validEnd;
+                }
+
+                if (consumer != null) {
+                    consumer.accept(payload.slice());
+                }
+
+                buffer.position(start + HEADER_SIZE + length);
+                position += HEADER_SIZE + length;
+                validEnd = position;
+            }
+
+            if (read < 0) {
+                return validEnd;
+            }
+
+            if (needed > buffer.capacity()) {
+                // nagy rekord, nagyobb puffer kell
+                ByteBuffer larger = ByteBuffer.allocateDirect(needed);
+                larger.put(buffer);
+                buffer = larger;
+            } else {
+                buffer.compact();
+            }
+        }
+    }
+
+    /**
+     * Appends a record. The record is not durable until {@link #sync(long)} returns.
+     * @param payload content of the record, from its position to its limit.
+     * @return sequence number of the record
+     */
+    public long append(final ByteBuffer payload) throws IOException {
+        int length = payload.remaining();
+
+        synchronized (lock) {
+            ensureOpen();
+
+            crc.reset();
+            crc.update(payload.duplicate());
+            int checksum = (int) crc.getValue();
+
+            if (active.remaining() < HEADER_SIZE + length) {
+                // a puffer megtelt: a sorrend miatt meg kell varni a futo szinkront
+                awaitIdle();
+                ensureOpen();
+                writeOutLocked(active);
+
+                if (active.capacity() < HEADER_SIZE + length) {
+                    ByteBuffer large = ByteBuffer.allocate(HEADER_SIZE + length);
+                    large.putInt(length).putInt(checksum).put(payload.duplicate());
+                    writeOutLocked(large);
+                    return ++appended;
+                }
+            }
+
+            active.putInt(length).putInt(checksum).put(payload.duplicate());
+            return ++appended;
+        }
+    }
+
+    /**
+     * Waits until every record up to the given sequence number is written and forced to disk.
+     */
+    public void sync(final long sequence) throws IOException {
+        ByteBuffer batch;
+        long upTo;
+
+        synchronized (lock) {
+            while (durable < sequence && syncing) {
+                waitForSync();
+            }
+            if (durable >= sequence) {
+                return;
+            }
+
+            // ez a szal lesz a vezeto, mindenki mas rank var
+            ensureOpen();
+            syncing = true;
+            batch = active;
+            active = spare;
+            spare = null;
+            upTo = appended;
+        }
+
+        boolean success = false;
+        IOException error = null;
+        try {
+            writeOut(batch);
+            channel.force(false);
+            success = true;
+        } catch (IOException e) {
+            error = e;
+            throw e;
+        } finally {
+            synchronized (lock) {
+                spare = batch;
+                syncing = false;
+                if (success) {
+                    durable = upTo;
+                } else if (failure == null) {
+                    failure = error != null ? error : new IOException("Journal sync failed.");
+                }
+                lock.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Makes every appended record durable.
+     */
+    public void sync() throws IOException {
+        long sequence;
+        synchronized (lock) {
+            sequence = appended;
+        }
+        sync(sequence);
+    }
+
+    public long getDurableSequence() {
+        synchronized (lock) {
+            return durable;
+        }
+    }
+
+    // hiba eseten is uresen marad a puffer, a felig kiirt adat nem ismetlodhet
+    private void writeOut(final ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } finally {
+            buffer.clear();
+        }
+    }
+
+    // a zar alatt, a hiba utan a naplo nem irhato tovabb
+    private void writeOutLocked(final ByteBuffer buffer) throws IOException {
+        try {
+            writeOut(buffer);
+        } catch (IOException e) {
+            failure = e;
+            throw e;
+        }
+    }
+
+    private void awaitIdle() throws IOException {
+        while (syncing) {
+            waitForSync();
+        }
+    }
+
+    private void waitForSync() throws IOException {
+        try {
+            lock.wait();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for journal sync.", e);
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Journal is closed.");
+        }
+        if (failure != null) {
+            throw new IOException("Journal failed, records may be lost.", failure);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            synchronized (lock) {
+                if (closed || failure != null) {
+                    return;
+                }
+            }
+            sync();
+        } finally {
+            synchronized (lock) {
+                if (!closed) {
+                    closed = true;
+                    channel.close();
+                }
+            }
+        }
+    }
+}
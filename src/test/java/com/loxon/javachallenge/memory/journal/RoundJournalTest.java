@@ -0,0 +1,99 @@
+package com.loxon.javachallenge.memory.journal;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class RoundJournalTest {
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    private static List<String> records( final Path path ) throws IOException {
+        final List<String> records = new ArrayList<>();
+        RoundJournal.read(path, payload -> {
+            final byte[] bytes = new byte[payload.remaining()];
+            payload.get(bytes);
+            records.add(new String(bytes, StandardCharsets.UTF_8));
+        });
+        return records;
+    }
+
+    private static void append( final RoundJournal journal, final String... records ) throws IOException {
+        for ( final String record : records ) {
+            journal.append(ByteBuffer.wrap(record.getBytes(StandardCharsets.UTF_8)));
+        }
+    }
+
+    @Test
+    public void testRecordsInOrder() throws IOException {
+        final Path path = temp.newFile().toPath();
+        final char[] large = new char[3 << 20];
+        Arrays.fill(large, 'x');
+
+        //Records larger than the read buffer too, the reopened journal appends after them
+        try ( final RoundJournal journal = RoundJournal.open(path, 1 << 10) ) {
+            append(journal, "first", new String(large), "third");
+            journal.sync();
+        }
+        try ( final RoundJournal journal = RoundJournal.open(path) ) {
+            append(journal, "fourth");
+        }
+        Assert.assertEquals(Arrays.asList("first", new String(large), "third", "fourth"), records(path));
+    }
+
+    @Test
+    public void testTornTail() throws IOException {
+        final Path path = temp.newFile().toPath();
+        try ( final RoundJournal journal = RoundJournal.open(path) ) {
+            append(journal, "a", "bc", "def");
+        }
+        final long size = Files.size(path);
+
+        //A zero-filled tail is not taken for empty records
+        Files.write(path, new byte[4096], StandardOpenOption.APPEND);
+        RoundJournal.open(path).close();
+        Assert.assertEquals(size, Files.size(path));
+
+        //Nor a length reaching past the end of the file
+        Files.write(path, ByteBuffer.allocate(12).putInt(Integer.MAX_VALUE).putInt(12345).putInt(42).array(),
+            StandardOpenOption.APPEND);
+        RoundJournal.open(path).close();
+        Assert.assertEquals(size, Files.size(path));
+
+        //A record cut in the middle is dropped with everything after it
+        try ( final FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE) ) {
+            channel.truncate(size - 1);
+        }
+        RoundJournal.open(path).close();
+        Assert.assertEquals(Arrays.asList("a", "bc"), records(path));
+    }
+
+    @Test
+    public void testChecksumMismatch() throws IOException {
+        final Path path = temp.newFile().toPath();
+        try ( final RoundJournal journal = RoundJournal.open(path) ) {
+            append(journal, "kept", "broken", "after");
+        }
+
+        //The payload of the second record changes, the records from there are cut off
+        try ( final FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE) ) {
+            channel.write(ByteBuffer.wrap(new byte[] { 'B' }), 8 + 4 + 8);
+        }
+        Assert.assertEquals(Collections.singletonList("kept"), records(path));
+        RoundJournal.open(path).close();
+        Assert.assertEquals(8 + 4, Files.size(path));
+    }
+}
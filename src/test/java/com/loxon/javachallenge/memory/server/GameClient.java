@@ -0,0 +1,246 @@
+package com.loxon.javachallenge.memory.server;
+
+import com.loxon.javachallenge.memory.api.Player;
+import com.loxon.javachallenge.memory.api.PlayerScore;
+import com.loxon.javachallenge.memory.api.communication.general.Command;
+import com.loxon.javachallenge.memory.api.communication.general.Response;
+import com.loxon.javachallenge.memory.codec.MessageCodec;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ProtocolException;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Blocking client of a {@link GameServer}, one player per client.
+ *
+ * The player given to commands is ignored, the server always uses the
+ * player registered on the connection. Responses and scores refer to local
+ * {@link Player} instances created from the names sent by the server.
+ */
+public class GameClient implements AutoCloseable {
+    private final SocketChannel channel;
+    private ByteBuffer in = ByteBuffer.allocate(4096);
+    private ByteBuffer out = ByteBuffer.allocate(256);
+
+    private Player player;
+    private int playerIndex = -1;
+
+    private boolean started;
+    private int cellCount;
+    private int rounds;
+    private int round;
+    private boolean gameOver;
+
+    // a beerkezett, de meg el nem kert uzenetek
+    private boolean roundReceived;
+    private Response roundResponse;
+    private List<PlayerScore> scores;
+
+    private GameClient(final SocketChannel channel) {
+        this.channel = channel;
+    }
+
+    public static GameClient connect(final InetSocketAddress address) throws IOException {
+        SocketChannel channel = SocketChannel.open(address);
+        try {
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        return new GameClient(channel);
+    }
+
+    public Player getPlayer() {
+        return player;
+    }
+
+    /**
+     * Index of the player in the registration order of the game, -1 before registration.
+     */
+    public int getPlayerIndex() {
+        return playerIndex;
+    }
+
+    public boolean isStarted() {
+        return started;
+    }
+
+    public int getCellCount() {
+        return cellCount;
+    }
+
+    public int getRounds() {
+        return rounds;
+    }
+
+    /**
+     * Number of rounds completed so far.
+     */
+    public int getRound() {
+        return round;
+    }
+
+    public boolean isGameOver() {
+        return gameOver;
+    }
+
+    public Player register(final String name) throws IOException {
+        out = WireCodec.begin(out, WireCodec.REGISTER, WireCodec.stringSize(name));
+        int start = out.position() - WireCodec.FRAME_HEADER;
+        WireCodec.putString(out, name);
+        out.putInt(start, out.position() - start - 4);
+        send();
+
+        while (playerIndex < 0) {
+            receive();
+        }
+
+        player = new Player(name);
+        return player;
+    }
+
+    /**
+     * Waits until the game is started.
+     */
+    public void awaitStart() throws IOException {
+        while (!started) {
+            receive();
+        }
+    }
+
+    /**
+     * Sends the command of the player for the current round.
+     */
+    public void submit(final Command command) throws IOException {
+        out = WireCodec.begin(out, WireCodec.COMMAND, MessageCodec.commandSize(command));
+        MessageCodec.putCommand(out, command);
+        send();
+    }
+
+    /**
+     * Waits for the end of the current round.
+     * @return response to the command of the player, or null
+     */
+    public Response awaitRound() throws IOException {
+        while (!roundReceived) {
+            receive();
+        }
+
+        Response r = roundResponse;
+        roundReceived = false;
+        roundResponse = null;
+        return r;
+    }
+
+    /**
+     * Sends a command and waits for the end of the round.
+     */
+    public Response play(final Command command) throws IOException {
+        submit(command);
+        return awaitRound();
+    }
+
+    public List<PlayerScore> getScores() throws IOException {
+        out = WireCodec.begin(out, WireCodec.SCORES, 0);
+        send();
+
+        while (scores == null) {
+            receive();
+        }
+
+        List<PlayerScore> result = scores;
+        scores = null;
+        return result;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void send() throws IOException {
+        out.flip();
+        while (out.hasRemaining()) {
+            channel.write(out);
+        }
+        out.clear();
+    }
+
+    private ByteBuffer readFrame() throws IOException {
+        while (true) {
+            in.flip();
+            int length = WireCodec.frameLength(in);
+            if (length >= 0) {
+                in.position(in.position() + 4);
+                byte[] frame = new byte[length];
+                in.get(frame);
+                in.compact();
+                return ByteBuffer.wrap(frame);
+            }
+
+            in.compact();
+            if (!in.hasRemaining()) {
+                in = WireCodec.reserve(in, in.capacity());
+            }
+            if (channel.read(in) < 0) {
+                throw new EOFException("Connection closed by the server.");
+            }
+        }
+    }
+
+    private void receive() throws IOException {
+        ByteBuffer frame = readFrame();
+        byte type = frame.get();
+        switch (type) {
+            case WireCodec.REGISTERED:
+                playerIndex = frame.getInt();
+                break;
+
+            case WireCodec.STARTED:
+                started = true;
+                cellCount = frame.getInt();
+                rounds = frame.getInt();
+                round = frame.getInt();
+                break;
+
+            case WireCodec.ROUND:
+                round = frame.getInt();
+                gameOver = frame.get() != 0;
+                try {
+                    roundResponse = MessageCodec.getResponse(frame, player);
+                } catch (IllegalArgumentException e) {
+                    throw new ProtocolException(e.getMessage());
+                }
+                roundReceived = true;
+                break;
+
+            case WireCodec.SCORE_LIST:
+                int count = frame.getInt();
+                scores = new ArrayList<>(count);
+                for (int i = 0; i < count; ++i) {
+                    int index = frame.getInt();
+                    String name = WireCodec.getString(frame);
+                    PlayerScore s = new PlayerScore(index == playerIndex ? player : new Player(name));
+                    s.setOwnedCells(frame.getInt());
+                    s.setOwnedBlocks(frame.getInt());
+                    s.setFortifiedCells(frame.getInt());
+                    s.setTotalScore(frame.getInt());
+                    scores.add(s);
+                }
+                break;
+
+            case WireCodec.ERROR:
+                throw new ProtocolException(WireCodec.getString(frame));
+
+            default:
+                throw new ProtocolException("Unknown message type: " + type);
+        }
+    }
+}
@@ -0,0 +1,587 @@
+package com.loxon.javachallenge.memory.server;
+
+import com.loxon.javachallenge.memory.api.Game;
+import com.loxon.javachallenge.memory.api.MemoryState;
+import com.loxon.javachallenge.memory.api.Player;
+import com.loxon.javachallenge.memory.api.PlayerScore;
+import com.loxon.javachallenge.memory.api.communication.general.Command;
+import com.loxon.javachallenge.memory.api.communication.general.CommandType;
+import com.loxon.javachallenge.memory.api.communication.general.Response;
+import com.loxon.javachallenge.memory.codec.CommandView;
+import com.loxon.javachallenge.memory.codec.MessageCodec;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ProtocolException;
+import java.net.StandardSocketOptions;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TCP server running one game for remote bots, see {@link WireCodec} for the protocol.
+ *
+ * A single selector thread serves every connection and is the only thread
+ * touching the game, so the game itself needs no synchronization. Every
+ * connection registers one player and sends at most one command per round.
+ * A round is played when every connected player has sent its command or when
+ * the round timeout expires, then each player receives the response to its
+ * own command. While no player is connected, the round timeout does not run.
+ * A connection sending a malformed message is closed.
+ */
+public class GameServer implements AutoCloseable {
+    private static final int BUFFER_SIZE = 4096;
+    private static final int MAX_PENDING_OUTPUT = 4 * WireCodec.MAX_FRAME;
+
+    private final Game game;
+    private final long roundTimeout;
+
+    private final Selector selector;
+    private final ServerSocketChannel acceptor;
+    private final Thread thread;
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    private volatile boolean running = true;
+
+    // csak a szerver szala eri el
+    private final List<Connection> registered = new ArrayList<>();
+    private final Map<Player, Connection> connections = new HashMap<>();
+    private final CommandView commandView = new CommandView();
+    private int connectedPlayers;
+    // kapcsolodott jatekosok, akik meg nem kuldtek parancsot a korben
+    private int waiting;
+
+    private boolean started;
+    private boolean finished;
+    private int cellCount;
+    private int rounds;
+    private long deadline;
+
+    private volatile int completedRounds;
+
+    private GameServer(final Game game, final long roundTimeout,
+                       final Selector selector, final ServerSocketChannel acceptor) {
+        this.game = game;
+        this.roundTimeout = roundTimeout;
+        this.selector = selector;
+        this.acceptor = acceptor;
+        this.thread = new Thread(this::run, "game-server-" + acceptor.socket().getLocalPort());
+        this.thread.setDaemon(true);
+    }
+
+    /**
+     * Starts serving a game. Players are registered by the clients, the game
+     * is started by {@link #startGame(List, int)}.
+     * @param game game to serve, must not be used by others.
+     * @param address local address to listen on, port 0 for any free port.
+     * @param roundTimeoutMillis time the players have to send their commands in a round.
+     */
+    public static GameServer open(final Game game, final InetSocketAddress address,
+                                  final long roundTimeoutMillis) throws IOException {
+        if (roundTimeoutMillis <= 0) {
+            throw new IllegalArgumentException("Round timeout must be greater than zero.");
+        }
+
+        Selector selector = Selector.open();
+        ServerSocketChannel acceptor = null;
+        try {
+            acceptor = ServerSocketChannel.open();
+            acceptor.bind(address, 1024);
+            acceptor.configureBlocking(false);
+            acceptor.register(selector, SelectionKey.OP_ACCEPT);
+        } catch (IOException | RuntimeException e) {
+            if (acceptor != null) {
+                acceptor.close();
+            }
+            selector.close();
+            throw e;
+        }
+
+        GameServer server = new GameServer(game, TimeUnit.MILLISECONDS.toNanos(roundTimeoutMillis),
+                selector, acceptor);
+        server.thread.start();
+        return server;
+    }
+
+    public InetSocketAddress getAddress() {
+        return (InetSocketAddress) acceptor.socket().getLocalSocketAddress();
+    }
+
+    public int getCompletedRounds() {
+        return completedRounds;
+    }
+
+    /**
+     * Starts the game with the players registered so far, later players can still join.
+     */
+    public CompletableFuture<Void> startGame(final List<MemoryState> initialMemory, final int rounds) {
+        return execute(() -> {
+            if (started) {
+                throw new IllegalStateException("Game is already started.");
+            }
+
+            game.startGame(initialMemory, rounds);
+            this.started = true;
+            this.cellCount = initialMemory.size();
+            this.rounds = rounds;
+            openRound();
+
+            for (Connection c : registered) {
+                if (c.open) {
+                    try {
+                        sendStarted(c);
+                    } catch (IOException e) {
+                        disconnect(c);
+                    }
+                }
+            }
+            return null;
+        });
+    }
+
+    public CompletableFuture<List<PlayerScore>> getScores() {
+        return execute(game::getScores);
+    }
+
+    private <T> CompletableFuture<T> execute(final Callable<T> operation) {
+        final CompletableFuture<T> result = new CompletableFuture<>();
+        tasks.add(() -> {
+            try {
+                result.complete(operation.call());
+            } catch (Throwable t) {
+                result.completeExceptionally(t);
+            }
+        });
+        selector.wakeup();
+
+        if (!running) {
+            result.completeExceptionally(new IllegalStateException("Server is closed."));
+        }
+        return result;
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        selector.wakeup();
+
+        if (Thread.currentThread() != thread) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+
+    // Event loop
+    private void run() {
+        try {
+            while (running) {
+                select();
+
+                Runnable task;
+                while ((task = tasks.poll()) != null) {
+                    task.run();
+                }
+
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    handle(key);
+                }
+
+                if (isRoundComplete()) {
+                    playRound();
+                }
+            }
+        } catch (IOException e) {
+            // a selector hibaja utan nem lehet tovabb kiszolgalni
+        } finally {
+            shutdown();
+        }
+    }
+
+    private void select() throws IOException {
+        // jatekosok nelkul nem telik a kor ideje
+        if (!started || finished || connectedPlayers == 0) {
+            selector.select();
+            return;
+        }
+
+        long remaining = deadline - System.nanoTime();
+        if (remaining <= 0) {
+            selector.selectNow();
+        } else {
+            selector.select(Math.max(1, TimeUnit.NANOSECONDS.toMillis(remaining)));
+        }
+    }
+
+    private void shutdown() {
+        running = false;
+        for (SelectionKey key : selector.keys()) {
+            closeQuietly(key);
+        }
+        closeQuietly(acceptor.keyFor(selector));
+        try {
+            acceptor.close();
+            selector.close();
+        } catch (IOException e) {
+            // lezarasnal nincs mit tenni
+        }
+
+        Runnable task;
+        while ((task = tasks.poll()) != null) {
+            task.run();
+        }
+    }
+
+    private static void closeQuietly(SelectionKey key) {
+        if (key == null) {
+            return;
+        }
+        key.cancel();
+        try {
+            key.channel().close();
+        } catch (IOException e) {
+            // lezarasnal nincs mit tenni
+        }
+    }
+
+    private void handle(SelectionKey key) {
+        if (!key.isValid()) {
+            return;
+        }
+
+        if (key.isAcceptable()) {
+            accept();
+            return;
+        }
+
+        Connection c = (Connection) key.attachment();
+        try {
+            if (key.isReadable()) {
+                read(c);
+            }
+            if (c.open && key.isWritable()) {
+                flush(c);
+            }
+        } catch (IOException | RuntimeException e) {
+            // egy kapcsolat hibaja nem allitja meg a szervert
+            disconnect(c);
+        }
+    }
+
+    private void accept() {
+        SocketChannel channel;
+        try {
+            while ((channel = acceptor.accept()) != null) {
+                try {
+                    channel.configureBlocking(false);
+                    channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                    Connection c = new Connection(channel);
+                    c.key = channel.register(selector, SelectionKey.OP_READ, c);
+                } catch (IOException e) {
+                    channel.close();
+                }
+            }
+        } catch (IOException e) {
+            // a tobbi kapcsolatot ez nem erinti
+        }
+    }
+
+    private void read(Connection c) throws IOException {
+        if (c.channel.read(c.in) < 0) {
+            disconnect(c);
+            return;
+        }
+
+        c.in.flip();
+        int length;
+        while (c.open && (length = WireCodec.frameLength(c.in)) >= 0) {
+            int end = c.in.position() + 4 + length;
+            c.in.position(c.in.position() + 4);
+            ByteBuffer frame = c.in.slice();
+            frame.limit(length);
+            c.in.position(end);
+
+            try {
+                receive(c, frame);
+            } catch (BufferUnderflowException e) {
+                throw new ProtocolException("Truncated message.");
+            }
+        }
+        c.in.compact();
+
+        // a kovetkezo keret nem fer el a bufferben
+        if (!c.in.hasRemaining()) {
+            c.in = WireCodec.reserve(c.in, c.in.capacity());
+        }
+    }
+
+    private void disconnect(Connection c) {
+        if (!c.open) {
+            return;
+        }
+
+        c.open = false;
+        closeQuietly(c.key);
+
+        if (c.player != null) {
+            --connectedPlayers;
+            // a mar elkuldott parancs ervenyes marad
+            if (started && !finished && !c.submitted) {
+                --waiting;
+            }
+        }
+    }
+
+
+    // Messages
+    private void receive(Connection c, ByteBuffer frame) throws IOException {
+        byte type = frame.get();
+        switch (type) {
+            case WireCodec.REGISTER:
+                register(c, WireCodec.getString(frame));
+                break;
+
+            case WireCodec.COMMAND:
+                submit(c, frame);
+                break;
+
+            case WireCodec.SCORES:
+                sendScores(c);
+                break;
+
+            default:
+                throw new ProtocolException("Unknown message type: " + type);
+        }
+    }
+
+    private void register(Connection c, String name) throws IOException {
+        if (c.player != null) {
+            sendError(c, "Player is already registered.");
+            return;
+        }
+
+        Player p;
+        try {
+            p = game.registerPlayer(name);
+        } catch (RuntimeException e) {
+            sendError(c, String.valueOf(e.getMessage()));
+            return;
+        }
+
+        c.player = p;
+        c.index = registered.size();
+        registered.add(c);
+        connections.put(p, c);
+
+        ++connectedPlayers;
+        if (started && !finished) {
+            if (connectedPlayers == 1) {
+                // az elso jatekos a teljes idot kapja
+                openRound();
+            } else {
+                ++waiting;
+            }
+        }
+
+        c.out = WireCodec.begin(c.out, WireCodec.REGISTERED, 4);
+        c.out.putInt(c.index);
+        if (started) {
+            sendStarted(c);
+        } else {
+            flush(c);
+        }
+    }
+
+    private void submit(Connection c, ByteBuffer frame) throws IOException {
+        if (c.player == null) {
+            sendError(c, "Player is not registered.");
+        } else if (!started) {
+            sendError(c, "Game is not started.");
+        } else if (finished) {
+            sendError(c, "Game is over.");
+        } else if (c.submitted) {
+            sendError(c, "Command is already sent in this round.");
+        } else {
+            CommandView command;
+            try {
+                command = commandView.wrap(frame, frame.position(), frame.remaining());
+            } catch (IllegalArgumentException e) {
+                throw new ProtocolException(e.getMessage());
+            }
+            if (command.getType() == CommandType.UNKNOWN) {
+                throw new ProtocolException("Unknown command type.");
+            }
+
+            // csak a kodolt parancs marad meg, az objektum a kor lejatszasakor kesz
+            int size = command.getEncodedSize();
+            if (c.command == null || c.command.capacity() < size) {
+                c.command = ByteBuffer.allocate(Math.max(size, 64));
+            }
+            ByteBuffer encoded = frame.duplicate();
+            encoded.limit(encoded.position() + size);
+            c.command.clear();
+            c.command.put(encoded);
+
+            c.submitted = true;
+            --waiting;
+        }
+    }
+
+    private void sendStarted(Connection c) throws IOException {
+        c.out = WireCodec.begin(c.out, WireCodec.STARTED, 12);
+        c.out.putInt(cellCount).putInt(rounds).putInt(completedRounds);
+        flush(c);
+    }
+
+    private void sendScores(Connection c) throws IOException {
+        if (!started) {
+            sendError(c, "Game is not started.");
+            return;
+        }
+
+        List<PlayerScore> scores = game.getScores();
+        int size = 4;
+        for (PlayerScore s : scores) {
+            size += 4 + WireCodec.stringSize(s.getPlayer().getName()) + 4 * 4;
+        }
+
+        c.out = WireCodec.begin(c.out, WireCodec.SCORE_LIST, size);
+        int start = c.out.position() - WireCodec.FRAME_HEADER;
+        c.out.putInt(scores.size());
+        for (PlayerScore s : scores) {
+            Connection owner = connections.get(s.getPlayer());
+            c.out.putInt(owner == null ? -1 : owner.index);
+            WireCodec.putString(c.out, s.getPlayer().getName());
+            c.out.putInt(s.getOwnedCells())
+                    .putInt(s.getOwnedBlocks())
+                    .putInt(s.getFortifiedCells())
+                    .putInt(s.getTotalScore());
+        }
+        // a nevek merete csak becsles volt
+        c.out.putInt(start, c.out.position() - start - 4);
+        flush(c);
+    }
+
+    private void sendError(Connection c, String message) throws IOException {
+        c.out = WireCodec.begin(c.out, WireCodec.ERROR, WireCodec.stringSize(message));
+        int start = c.out.position() - WireCodec.FRAME_HEADER;
+        WireCodec.putString(c.out, message);
+        c.out.putInt(start, c.out.position() - start - 4);
+        flush(c);
+    }
+
+    private void flush(Connection c) throws IOException {
+        c.out.flip();
+        c.channel.write(c.out);
+        c.out.compact();
+
+        if (c.out.position() > MAX_PENDING_OUTPUT) {
+            throw new IOException("Client does not read its messages.");
+        }
+
+        int ops = c.out.position() > 0 ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ;
+        if (c.key.interestOps() != ops) {
+            c.key.interestOps(ops);
+        }
+    }
+
+
+    // Rounds
+    private void openRound() {
+        waiting = connectedPlayers;
+        deadline = System.nanoTime() + roundTimeout;
+    }
+
+    private boolean isRoundComplete() {
+        return started && !finished && connectedPlayers > 0 &&
+               (waiting == 0 || deadline - System.nanoTime() <= 0);
+    }
+
+    private void playRound() {
+        int count = 0;
+        for (Connection c : registered) {
+            if (c.submitted) {
+                ++count;
+            }
+        }
+
+        // regisztracios sorrendben
+        Command[] commands = new Command[count];
+        count = 0;
+        for (Connection c : registered) {
+            if (c.submitted) {
+                commands[count++] = commandView.wrap(c.command, 0, c.command.position()).toCommand(c.player);
+                c.submitted = false;
+            }
+        }
+
+        List<Response> responses = game.nextRound(commands);
+        if (responses != null) {
+            for (Response r : responses) {
+                Connection c = connections.get(r.getPlayer());
+                if (c != null) {
+                    c.response = r;
+                }
+            }
+        }
+
+        int round = completedRounds + 1;
+        completedRounds = round;
+        finished = responses == null || round >= rounds;
+
+        for (Connection c : registered) {
+            Response r = c.response;
+            c.response = null;
+
+            if (c.open) {
+                try {
+                    c.out = WireCodec.begin(c.out, WireCodec.ROUND, 5 + MessageCodec.responseSize(r));
+                    c.out.putInt(round).put((byte) (finished ? 1 : 0));
+                    MessageCodec.putResponse(c.out, r);
+                    flush(c);
+                } catch (IOException e) {
+                    disconnect(c);
+                }
+            }
+        }
+
+        openRound();
+    }
+
+    private static final class Connection {
+        final SocketChannel channel;
+        SelectionKey key;
+        ByteBuffer in = ByteBuffer.allocate(BUFFER_SIZE);
+        ByteBuffer out = ByteBuffer.allocate(BUFFER_SIZE);
+        boolean open = true;
+
+        Player player;
+        int index = -1;
+        // a kor parancsa kodolt formaban
+        ByteBuffer command;
+        boolean submitted;
+        Response response;
+
+        Connection(final SocketChannel channel) {
+            this.channel = channel;
+        }
+    }
+}
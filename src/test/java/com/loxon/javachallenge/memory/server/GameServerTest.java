@@ -0,0 +1,138 @@
+package com.loxon.javachallenge.memory.server;
+
+import com.loxon.javachallenge.memory.GameImplementation;
+import com.loxon.javachallenge.memory.GameImplementationFactory;
+import com.loxon.javachallenge.memory.TestGames;
+import com.loxon.javachallenge.memory.api.Game;
+import com.loxon.javachallenge.memory.api.MemoryState;
+import com.loxon.javachallenge.memory.api.Player;
+import com.loxon.javachallenge.memory.api.PlayerScore;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandAllocate;
+import com.loxon.javachallenge.memory.api.communication.general.Command;
+import com.loxon.javachallenge.memory.api.communication.general.Response;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+public class GameServerTest {
+
+    @Test
+    public void testServerRoundTrip() throws Exception {
+        final List<MemoryState> memory = TestGames.randomMemory(new Random(3), 64);
+        final Game reference = GameImplementationFactory.get();
+        final Player[] players = TestGames.startGame(reference, memory, 2, 8);
+
+        try ( final GameServer server = GameServer.open(GameImplementationFactory.get(), new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 10_000);
+              final GameClient c0 = GameClient.connect(server.getAddress());
+              final GameClient c1 = GameClient.connect(server.getAddress()) ) {
+            c0.register("p0");
+            c1.register("p1");
+            server.startGame(memory, 8).get(10, TimeUnit.SECONDS);
+            c0.awaitStart();
+            c1.awaitStart();
+            Assert.assertEquals(64, c1.getCellCount());
+            Assert.assertEquals(8, c1.getRounds());
+
+            //Every response arrives at its client as the local game answers it
+            final Random random = new Random(4);
+            for ( int round = 0; round < 8; ++round ) {
+                final Command command0 = TestGames.randomCommand(random, players[0], memory.size(), memory.size());
+                final Command command1 = TestGames.randomCommand(random, players[1], memory.size(), memory.size());
+                final List<Response> expected = reference.nextRound(command0, command1);
+                c0.submit(command0);
+                c1.submit(command1);
+                assertRemoteResponse(expected, players[0], c0.getPlayer(), c0.awaitRound());
+                assertRemoteResponse(expected, players[1], c1.getPlayer(), c1.awaitRound());
+                Assert.assertEquals(round + 1, c0.getRound());
+            }
+            Assert.assertTrue(c0.isGameOver());
+            Assert.assertTrue(c1.isGameOver());
+
+            final List<PlayerScore> scores = c0.getScores();
+            Assert.assertSame(c0.getPlayer(), scores.get(0).getPlayer());
+            Assert.assertEquals(TestGames.scoresOf(reference), TestGames.scoresOf(scores));
+        }
+    }
+
+    private static void assertRemoteResponse( final List<Response> expected, final Player player,
+        final Player remotePlayer, final Response actual ) {
+        final Response response = expected.stream().filter(r -> r.getPlayer() == player).findFirst().orElse(null);
+        Assert.assertEquals(response, actual);
+        if ( actual != null ) {
+            Assert.assertSame(remotePlayer, actual.getPlayer());
+        }
+    }
+
+    @Test
+    public void testServerMalformedFrames() throws Exception {
+        final Game served = new GameImplementation() {
+            @Override
+            public List<PlayerScore> getScores() {
+                throw new IllegalStateException("Scores are not available.");
+            }
+        };
+
+        try ( final GameServer server = GameServer.open(served, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 10_000);
+              final GameClient client = GameClient.connect(server.getAddress()) ) {
+            //Unknown message type, invalid frame length, string longer than its frame
+            assertClosedByServer(server, ByteBuffer.allocate(5).putInt(1).put((byte) 99));
+            assertClosedByServer(server, ByteBuffer.allocate(5).putInt(-7).put((byte) 1));
+            assertClosedByServer(server, ByteBuffer.allocate(9).putInt(5).put((byte) 1).putInt(1_000_000_000));
+
+            //A failing game call closes only the connection it serves
+            try ( final GameClient failing = GameClient.connect(server.getAddress()) ) {
+                failing.register("failing");
+                server.startGame(Collections.nCopies(16, MemoryState.FREE), 4).get(10, TimeUnit.SECONDS);
+                failing.getScores();
+                Assert.fail("Connection should be closed.");
+            } catch ( IOException e ) {
+                //expected
+            }
+
+            client.register("ok");
+            client.awaitStart();
+            Assert.assertEquals(TestGames.list(client.getPlayer(), 0, 1), client.play(new CommandAllocate(client.getPlayer(), 0, 1)));
+            Assert.assertEquals(1, server.getCompletedRounds());
+        }
+    }
+
+    private static void assertClosedByServer( final GameServer server, final ByteBuffer frame ) throws IOException {
+        try ( final Socket socket = new Socket(server.getAddress().getAddress(), server.getAddress().getPort()) ) {
+            socket.setSoTimeout(10_000);
+            socket.getOutputStream().write(frame.array());
+            try {
+                Assert.assertEquals(-1, socket.getInputStream().read());
+            } catch ( SocketException e ) {
+                //connection reset
+            }
+        }
+    }
+
+    @Test
+    public void testServerIdleWithoutPlayers() throws Exception {
+        try ( final GameServer server = GameServer.open(GameImplementationFactory.get(), new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 10) ) {
+            server.startGame(Collections.nCopies(16, MemoryState.FREE), 4).get(10, TimeUnit.SECONDS);
+
+            //No round is played by the timeout while nobody is connected
+            Thread.sleep(200);
+            Assert.assertEquals(0, server.getCompletedRounds());
+
+            try ( final GameClient client = GameClient.connect(server.getAddress()) ) {
+                client.register("late");
+                client.awaitStart();
+                Assert.assertNull(client.awaitRound());
+                Assert.assertEquals(1, client.getRound());
+            }
+        }
+    }
+}
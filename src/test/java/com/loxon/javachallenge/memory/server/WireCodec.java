@@ -0,0 +1,104 @@
+package com.loxon.javachallenge.memory.server;
+
+import com.loxon.javachallenge.memory.codec.MessageCodec;
+
+import java.net.ProtocolException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Wire format of the game server.
+ *
+ * Every message is framed as {@code [int length][byte type][body]}, the length
+ * covers the type and the body. Strings are {@code [int length][UTF-8 bytes]},
+ * -1 for null. Commands and responses are encoded by {@link MessageCodec}, their
+ * player is always the player registered on the connection.
+ */
+final class WireCodec {
+    static final int MAX_FRAME = 1 << 20;
+
+    // kliens -> szerver
+    static final byte REGISTER = 1;
+    static final byte COMMAND = 2;
+    static final byte SCORES = 3;
+
+    // szerver -> kliens
+    static final byte REGISTERED = 11;
+    static final byte STARTED = 12;
+    static final byte ROUND = 13;
+    static final byte SCORE_LIST = 14;
+    static final byte ERROR = 15;
+
+    static final int FRAME_HEADER = 5;
+
+    private WireCodec() {
+    }
+
+    /**
+     * Makes room for {@code size} more bytes in a buffer in write mode.
+     */
+    static ByteBuffer reserve(ByteBuffer buffer, int size) {
+        if (buffer.remaining() >= size) {
+            return buffer;
+        }
+
+        ByteBuffer grown = ByteBuffer.allocate(Math.max(buffer.position() + size, buffer.capacity() * 2));
+        buffer.flip();
+        grown.put(buffer);
+        return grown;
+    }
+
+    /**
+     * Reserves room for a message and writes its frame header.
+     */
+    static ByteBuffer begin(ByteBuffer buffer, byte type, int bodySize) {
+        buffer = reserve(buffer, FRAME_HEADER + bodySize);
+        buffer.putInt(1 + bodySize).put(type);
+        return buffer;
+    }
+
+    /**
+     * Length of the next complete frame in a buffer in read mode, or -1 if
+     * the frame is not received entirely yet.
+     */
+    static int frameLength(ByteBuffer buffer) throws ProtocolException {
+        if (buffer.remaining() < 4) {
+            return -1;
+        }
+
+        int length = buffer.getInt(buffer.position());
+        if (length < 1 || length > MAX_FRAME) {
+            throw new ProtocolException("Invalid frame length: " + length);
+        }
+
+        return buffer.remaining() - 4 >= length ? length : -1;
+    }
+
+    static int stringSize(String s) {
+        return 4 + (s == null ? 0 : s.length() * 3);
+    }
+
+    static void putString(ByteBuffer buffer, String s) {
+        if (s == null) {
+            buffer.putInt(-1);
+        } else {
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            buffer.putInt(bytes.length).put(bytes);
+        }
+    }
+
+    static String getString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        if (length > buffer.remaining()) {
+            throw new BufferUnderflowException();
+        }
+
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
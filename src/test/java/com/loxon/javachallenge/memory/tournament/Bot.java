@@ -0,0 +1,22 @@
+package com.loxon.javachallenge.memory.tournament;
+
+import com.loxon.javachallenge.memory.api.Player;
+import com.loxon.javachallenge.memory.api.communication.general.Command;
+import com.loxon.javachallenge.memory.api.communication.general.Response;
+
+import java.util.List;
+
+/**
+ * A bot playing a single match. Instances are not shared between matches.
+ */
+public interface Bot {
+
+    /**
+     * Decides the command of the next round.
+     * @param self the player controlled by this bot.
+     * @param previousResponses responses of the previous round addressed to this player,
+     *                          empty in the first round.
+     * @return command to execute, or {@code null} to skip the round.
+     */
+    Command nextCommand(final Player self, final List<Response> previousResponses);
+}
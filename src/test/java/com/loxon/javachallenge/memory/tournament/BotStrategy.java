@@ -0,0 +1,22 @@
+package com.loxon.javachallenge.memory.tournament;
+
+/**
+ * Named bot strategy, creates a fresh bot for every match.
+ */
+public interface BotStrategy {
+
+    /**
+     * Name of the strategy, also used as player name and league table key,
+     * so it must be unique in a tournament.
+     * @return name of the strategy
+     */
+    String getName();
+
+    /**
+     * Creates a bot for a new match.
+     * @param cellCount size of the memory in the match.
+     * @param rounds number of rounds to be played.
+     * @return a new bot instance
+     */
+    Bot createBot(final int cellCount, final int rounds);
+}
@@ -0,0 +1,78 @@
+package com.loxon.javachallenge.memory.tournament;
+
+import com.loxon.javachallenge.memory.api.PlayerScore;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Aggregated results of a tournament.
+ */
+public class LeagueTable {
+    private final Map<String, Standing> standings = new LinkedHashMap<>();
+    private long matches;
+    private long elapsedNanos;
+
+    private Standing standing(final String strategy) {
+        return standings.computeIfAbsent(strategy, Standing::new);
+    }
+
+    void addMatch(final String strategy1, final PlayerScore score1,
+                  final String strategy2, final PlayerScore score2) {
+        standing(strategy1).addMatch(score1, score2);
+        standing(strategy2).addMatch(score2, score1);
+        ++matches;
+    }
+
+    void merge(final LeagueTable other) {
+        other.standings.forEach((name, s) -> standing(name).merge(s));
+        matches += other.matches;
+    }
+
+    void setElapsedNanos(final long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Standings ordered by points, then by total score.
+     * @return list of standings
+     */
+    public List<Standing> getStandings() {
+        List<Standing> sorted = new ArrayList<>(standings.values());
+        sorted.sort(Comparator.comparingInt(Standing::getPoints)
+                .thenComparingLong(Standing::getTotalScore)
+                .reversed());
+        return sorted;
+    }
+
+    public Standing getStanding(final String strategy) {
+        return standings.get(strategy);
+    }
+
+    public long getMatches() {
+        return matches;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public double getMatchesPerSecond() {
+        return elapsedNanos <= 0 ? 0 : matches * 1e9 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("LeagueTable{matches=").append(matches)
+          .append(", matchesPerSecond=").append(String.format("%.1f", getMatchesPerSecond()))
+          .append("}\n");
+        for (Standing s : getStandings()) {
+            sb.append(s).append('\n');
+        }
+        return sb.toString();
+    }
+}
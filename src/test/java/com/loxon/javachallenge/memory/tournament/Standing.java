@@ -0,0 +1,108 @@
+package com.loxon.javachallenge.memory.tournament;
+
+import com.loxon.javachallenge.memory.api.PlayerScore;
+
+/**
+ * League table row of a strategy.
+ * Wins are worth 3 points, draws 1 point.
+ */
+public class Standing {
+    private final String strategy;
+
+    private int played;
+    private int won;
+    private int drawn;
+    private int lost;
+
+    private long totalScore;
+    private long ownedCells;
+    private long ownedBlocks;
+    private long fortifiedCells;
+
+    public Standing(final String strategy) {
+        this.strategy = strategy;
+    }
+
+    void addMatch(final PlayerScore own, final PlayerScore opponent) {
+        ++played;
+        if (own.getTotalScore() > opponent.getTotalScore()) {
+            ++won;
+        } else if (own.getTotalScore() == opponent.getTotalScore()) {
+            ++drawn;
+        } else {
+            ++lost;
+        }
+
+        totalScore += own.getTotalScore();
+        ownedCells += own.getOwnedCells();
+        ownedBlocks += own.getOwnedBlocks();
+        fortifiedCells += own.getFortifiedCells();
+    }
+
+    void merge(final Standing other) {
+        played += other.played;
+        won += other.won;
+        drawn += other.drawn;
+        lost += other.lost;
+        totalScore += other.totalScore;
+        ownedCells += other.ownedCells;
+        ownedBlocks += other.ownedBlocks;
+        fortifiedCells += other.fortifiedCells;
+    }
+
+    public String getStrategy() {
+        return strategy;
+    }
+
+    public int getPlayed() {
+        return played;
+    }
+
+    public int getWon() {
+        return won;
+    }
+
+    public int getDrawn() {
+        return drawn;
+    }
+
+    public int getLost() {
+        return lost;
+    }
+
+    public int getPoints() {
+        return 3 * won + drawn;
+    }
+
+    public long getTotalScore() {
+        return totalScore;
+    }
+
+    public long getOwnedCells() {
+        return ownedCells;
+    }
+
+    public long getOwnedBlocks() {
+        return ownedBlocks;
+    }
+
+    public long getFortifiedCells() {
+        return fortifiedCells;
+    }
+
+    @Override
+    public String toString() {
+        return "Standing{" +
+                "strategy='" + strategy + '\'' +
+                ", played=" + played +
+                ", won=" + won +
+                ", drawn=" + drawn +
+                ", lost=" + lost +
+                ", points=" + getPoints() +
+                ", totalScore=" + totalScore +
+                ", ownedCells=" + ownedCells +
+                ", ownedBlocks=" + ownedBlocks +
+                ", fortifiedCells=" + fortifiedCells +
+                '}';
+    }
+}
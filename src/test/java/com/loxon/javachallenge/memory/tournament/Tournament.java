@@ -0,0 +1,189 @@
+package com.loxon.javachallenge.memory.tournament;
+
+import com.loxon.javachallenge.memory.GameImplementationFactory;
+import com.loxon.javachallenge.memory.api.Game;
+import com.loxon.javachallenge.memory.api.MemoryState;
+import com.loxon.javachallenge.memory.api.Player;
+import com.loxon.javachallenge.memory.api.PlayerScore;
+import com.loxon.javachallenge.memory.api.communication.general.Command;
+import com.loxon.javachallenge.memory.api.communication.general.Response;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Supplier;
+
+/**
+ * Round-robin tournament between bot strategies.
+ * Every pair of strategies plays on every initial layout, {@code repetitions} times.
+ * Each of these is a mirrored pair of matches, so both strategies send their
+ * commands first in one of them. Matches are independent and run in parallel
+ * on a fork-join pool.
+ */
+public class Tournament {
+    private static final int SEQUENTIAL_THRESHOLD = 16;
+
+    private final List<BotStrategy> strategies;
+    private final List<List<MemoryState>> layouts;
+    private final int rounds;
+    private final int repetitions;
+    private final Supplier<Game> gameFactory;
+
+    // parok elore kiszamolva
+    private final int[] firstOfPair;
+    private final int[] secondOfPair;
+
+    public Tournament(final List<BotStrategy> strategies, final List<List<MemoryState>> layouts,
+                      final int rounds, final int repetitions) {
+        this(strategies, layouts, rounds, repetitions, GameImplementationFactory::get);
+    }
+
+    public Tournament(final List<BotStrategy> strategies, final List<List<MemoryState>> layouts,
+                      final int rounds, final int repetitions, final Supplier<Game> gameFactory) {
+        if (rounds <= 0 || repetitions <= 0) {
+            throw new IllegalArgumentException("Number of rounds and repetitions must greater than zero.");
+        }
+
+        Set<String> names = new HashSet<>();
+        for (BotStrategy strategy : strategies) {
+            if (!names.add(strategy.getName())) {
+                throw new IllegalArgumentException("Duplicate strategy name: " + strategy.getName());
+            }
+        }
+
+        this.strategies = new ArrayList<>(strategies);
+        this.layouts = new ArrayList<>(layouts);
+        this.rounds = rounds;
+        this.repetitions = repetitions;
+        this.gameFactory = gameFactory;
+
+        int n = this.strategies.size();
+        int pairs = n * (n - 1) / 2;
+        firstOfPair = new int[pairs];
+        secondOfPair = new int[pairs];
+        int p = 0;
+        for (int i = 0; i < n; ++i) {
+            for (int j = i + 1; j < n; ++j) {
+                firstOfPair[p] = i;
+                secondOfPair[p] = j;
+                ++p;
+            }
+        }
+    }
+
+    public long getMatchCount() {
+        return (long) firstOfPair.length * getMatchesPerPair();
+    }
+
+    private long getMatchesPerPair() {
+        return 2L * layouts.size() * repetitions;
+    }
+
+    public LeagueTable run() {
+        return run(ForkJoinPool.commonPool());
+    }
+
+    public LeagueTable run(final ForkJoinPool pool) {
+        long start = System.nanoTime();
+        LeagueTable table = pool.invoke(new MatchTask(0, getMatchCount()));
+        table.setElapsedNanos(System.nanoTime() - start);
+        return table;
+    }
+
+    private class MatchTask extends RecursiveTask<LeagueTable> {
+        private static final long serialVersionUID = 1L;
+
+        private final long from;
+        private final long to;
+
+        MatchTask(final long from, final long to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected LeagueTable compute() {
+            if (to - from <= SEQUENTIAL_THRESHOLD) {
+                LeagueTable table = new LeagueTable();
+                for (long i = from; i < to; ++i) {
+                    playMatch(i, table);
+                }
+                return table;
+            }
+
+            long mid = (from + to) >>> 1;
+            MatchTask left = new MatchTask(from, mid);
+            left.fork();
+            LeagueTable table = new MatchTask(mid, to).compute();
+            table.merge(left.join());
+            return table;
+        }
+    }
+
+    private void playMatch(final long index, final LeagueTable table) {
+        int pair = (int) (index / getMatchesPerPair());
+        // a par meccsszama: (palya * ismetles + ismetles sorszama) * 2 + tukrozes
+        long number = index % getMatchesPerPair();
+        int layoutIndex = (int) ((number >>> 1) / repetitions);
+
+        BotStrategy s1 = strategies.get(firstOfPair[pair]);
+        BotStrategy s2 = strategies.get(secondOfPair[pair]);
+        List<MemoryState> layout = layouts.get(layoutIndex);
+
+        Game game = gameFactory.get();
+        Player p1 = game.registerPlayer(s1.getName());
+        Player p2 = game.registerPlayer(s2.getName());
+        game.startGame(layout, rounds);
+
+        Bot b1 = s1.createBot(layout.size(), rounds);
+        Bot b2 = s2.createBot(layout.size(), rounds);
+
+        // a parancsok sorrendje szamit, ezert a tukrozott meccsben a masik kezd
+        boolean firstStarts = (number & 1) == 0;
+
+        List<Response> previous1 = Collections.emptyList();
+        List<Response> previous2 = Collections.emptyList();
+        List<Command> commands = new ArrayList<>(2);
+
+        for (int r = 0; r < rounds; ++r) {
+            Command c1 = b1.nextCommand(p1, previous1);
+            Command c2 = b2.nextCommand(p2, previous2);
+
+            commands.clear();
+            if (firstStarts && c1 != null) commands.add(c1);
+            if (c2 != null) commands.add(c2);
+            if (!firstStarts && c1 != null) commands.add(c1);
+
+            List<Response> responses = game.nextRound(commands.toArray(new Command[0]));
+            if (responses == null) {
+                break;
+            }
+
+            previous1 = new ArrayList<>(1);
+            previous2 = new ArrayList<>(1);
+            for (Response resp : responses) {
+                if (resp.getPlayer() == p1) {
+                    previous1.add(resp);
+                } else if (resp.getPlayer() == p2) {
+                    previous2.add(resp);
+                }
+            }
+        }
+
+        PlayerScore score1 = new PlayerScore(p1);
+        PlayerScore score2 = new PlayerScore(p2);
+        for (PlayerScore score : game.getScores()) {
+            if (score.getPlayer() == p1) {
+                score1 = score;
+            } else if (score.getPlayer() == p2) {
+                score2 = score;
+            }
+        }
+
+        table.addMatch(s1.getName(), score1, s2.getName(), score2);
+    }
+}
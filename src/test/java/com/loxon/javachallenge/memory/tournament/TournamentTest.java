@@ -0,0 +1,92 @@
+package com.loxon.javachallenge.memory.tournament;
+
+import com.loxon.javachallenge.memory.GameImplementation;
+import com.loxon.javachallenge.memory.api.MemoryState;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandAllocate;
+import com.loxon.javachallenge.memory.api.communication.general.Command;
+import com.loxon.javachallenge.memory.api.communication.general.Response;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TournamentTest {
+
+    private static BotStrategy allocatingStrategy( final String name, final int cell ) {
+        return new BotStrategy() {
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public Bot createBot( final int cellCount, final int rounds ) {
+                return ( self, previous ) -> new CommandAllocate(self, cell, cell + 1);
+            }
+        };
+    }
+
+    @Test
+    public void testMirroredMatches() {
+        final List<BotStrategy> strategies = Arrays.asList(
+            allocatingStrategy("x", 0), allocatingStrategy("y", 4), allocatingStrategy("z", 8));
+        final List<List<MemoryState>> layouts = new ArrayList<>();
+        for ( int i = 1; i <= 3; ++i ) {
+            layouts.add(Collections.nCopies(16 * i, MemoryState.FREE));
+        }
+
+        //Counts who sent the first command on which layout
+        final Map<String, AtomicInteger> starts = new ConcurrentHashMap<>();
+        final Tournament tournament = new Tournament(strategies, layouts, 2, 1, () -> new GameImplementation() {
+            private int size;
+
+            @Override
+            public void startGame( final List<MemoryState> initialMemory, final int rounds ) {
+                size = initialMemory.size();
+                super.startGame(initialMemory, rounds);
+            }
+
+            @Override
+            public List<Response> nextRound( final Command... requests ) {
+                if ( requests.length == 2 ) {
+                    final String key = requests[0].getPlayer().getName() + ">" + requests[1].getPlayer().getName()
+                        + "@" + size;
+                    starts.computeIfAbsent(key, k -> new AtomicInteger()).incrementAndGet();
+                }
+                return super.nextRound(requests);
+            }
+        });
+        Assert.assertEquals(18, tournament.getMatchCount());
+
+        final ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            final LeagueTable table = tournament.run(pool);
+            Assert.assertEquals(18, table.getMatches());
+            for ( final BotStrategy s1 : strategies ) {
+                Assert.assertEquals(12, table.getStanding(s1.getName()).getPlayed());
+                for ( final BotStrategy s2 : strategies ) {
+                    for ( int size = 16; size <= 48 && s1 != s2; size += 16 ) {
+                        final AtomicInteger count = starts.get(s1.getName() + ">" + s2.getName() + "@" + size);
+                        Assert.assertNotNull(count);
+                        Assert.assertEquals(2, count.get());
+                    }
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test( expected = IllegalArgumentException.class )
+    public void testDuplicateStrategyNames() {
+        new Tournament(Arrays.asList(allocatingStrategy("x", 0), allocatingStrategy("x", 4)),
+            Collections.singletonList(Collections.nCopies(16, MemoryState.FREE)), 2, 1);
+    }
+}